@@ -0,0 +1,87 @@
+package com.project.ecommerce.cache;
+
+import com.project.ecommerce.dto.CategoryDto;
+import com.project.ecommerce.dto.CursorPage;
+import com.project.ecommerce.dto.ProductDto;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+@Component
+public class CatalogCache {
+    private static final String ALL_CATEGORIES = "all";
+
+    @Value("${catalog.cache.max-products:10000}")
+    private int maxProducts;
+
+    @Value("${catalog.cache.max-category-pages:2000}")
+    private int maxCategoryPages;
+
+    @Value("${catalog.cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    private LruCache<Long, ProductDto> products;
+    private LruCache<CategoryPageKey, CursorPage<ProductDto>> categoryPages;
+    private LruCache<String, List<CategoryDto>> categories;
+
+    @PostConstruct
+    public void init() {
+        products = new LruCache<>(maxProducts, ttlMs);
+        categoryPages = new LruCache<>(maxCategoryPages, ttlMs);
+        categories = new LruCache<>(1, ttlMs);
+    }
+
+    public ProductDto getProduct(Long id, Supplier<ProductDto> loader) {
+        return products.get(id, key -> loader.get());
+    }
+
+    public CursorPage<ProductDto> getCategoryPage(Long categoryId, String cursor, int size,
+                                                  Supplier<CursorPage<ProductDto>> loader) {
+        return categoryPages.get(new CategoryPageKey(categoryId, cursor, size), key -> loader.get());
+    }
+
+    public List<CategoryDto> getCategories(Supplier<List<CategoryDto>> loader) {
+        return categories.get(ALL_CATEGORIES, key -> loader.get());
+    }
+
+    public void evictProduct(Long productId, Long... categoryIds) {
+        products.invalidate(productId);
+        for (Long categoryId : categoryIds) {
+            if (categoryId != null) {
+                categoryPages.invalidateIf((key, page) -> key.categoryId().equals(categoryId));
+            }
+        }
+    }
+
+    // Product DTOs carry the category name, so a category change touches cached products as well
+    public void evictCategory(Long categoryId) {
+        categories.clear();
+        categoryPages.invalidateIf((key, page) -> key.categoryId().equals(categoryId));
+        products.invalidateIf((id, product) -> Objects.equals(product.getCategoryId(), categoryId));
+    }
+
+    public void evictCategories() {
+        categories.clear();
+    }
+
+    public void evictProducts() {
+        products.clear();
+        categoryPages.clear();
+    }
+
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("products", products.stats());
+        stats.put("categoryPages", categoryPages.stats());
+        stats.put("categories", categories.stats());
+        return stats;
+    }
+
+    private record CategoryPageKey(Long categoryId, String cursor, int size) {
+    }
+}
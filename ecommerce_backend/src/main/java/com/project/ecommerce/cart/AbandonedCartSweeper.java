@@ -0,0 +1,168 @@
+package com.project.ecommerce.cart;
+
+import com.project.ecommerce.dto.CartSweepStats;
+import com.project.ecommerce.repository.CartItemBatchRepository;
+import com.project.ecommerce.repository.CartItemBatchRepository.StaleLine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Deletes carts whose newest line is older than the TTL. Stale lines are walked oldest first in chunks on a
+// (last_touched, id) cursor; each chunk's idle carts go in one short transaction, with a pause between chunks
+// and a cap on each run's length so live cart traffic never waits long behind the sweeper. It runs on its own
+// thread, since a run can take up to max-run-ms and would otherwise hold up Spring's single scheduler thread.
+@Component
+public class AbandonedCartSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(AbandonedCartSweeper.class);
+
+    @Autowired
+    private CartItemBatchRepository cartItemBatchRepository;
+
+    @Autowired
+    private MemoryCartStore memoryCartStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cart.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cart.sweeper.interval-ms:600000}")
+    private long intervalMillis;
+
+    @Value("${cart.sweeper.ttl-hours:720}")
+    private long ttlHours;
+
+    @Value("${cart.sweeper.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${cart.sweeper.pause-ms:50}")
+    private long pauseMillis;
+
+    @Value("${cart.sweeper.max-run-ms:30000}")
+    private long maxRunMillis;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong cartsSwept = new AtomicLong();
+    private final AtomicLong rowsSwept = new AtomicLong();
+    private final AtomicLong totalSweepMillis = new AtomicLong();
+    private volatile long lastRunRowsSwept;
+    private volatile long lastRunMillis;
+    private volatile LocalDateTime lastRunAt;
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void touchUntrackedLines() {
+        int touched = cartItemBatchRepository.touchUntracked();
+        if (touched > 0) {
+            logger.info("Started the abandoned-cart clock for {} cart lines", touched);
+        }
+    }
+
+    public void sweep() {
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(ttlHours);
+        LocalDateTime afterTouched = LocalDateTime.of(1970, 1, 1, 0, 0);
+        long afterId = 0L;
+        long runRows = 0;
+        long runCarts = 0;
+
+        try {
+            List<StaleLine> chunk;
+            do {
+                chunk = cartItemBatchRepository.findStaleLines(cutoff, afterTouched, afterId, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                StaleLine last = chunk.get(chunk.size() - 1);
+                afterTouched = last.lastTouched();
+                afterId = last.id();
+
+                Set<Long> userIds = new LinkedHashSet<>();
+                chunk.forEach(line -> userIds.add(line.userId()));
+                int[] swept = memoryCartStore.withCartsNotHeld(userIds, notHeld -> notHeld.isEmpty()
+                        ? new int[]{0, 0}
+                        : transactionTemplate.execute(status -> sweepCarts(notHeld, cutoff)));
+                runCarts += swept[0];
+                runRows += swept[1];
+
+                if (chunk.size() == chunkSize && pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            } while (chunk.size() == chunkSize && System.currentTimeMillis() - started < maxRunMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Abandoned-cart sweep failed: {}", e.getMessage());
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        runs.incrementAndGet();
+        cartsSwept.addAndGet(runCarts);
+        rowsSwept.addAndGet(runRows);
+        totalSweepMillis.addAndGet(elapsed);
+        lastRunRowsSwept = runRows;
+        lastRunMillis = elapsed;
+        lastRunAt = LocalDateTime.now();
+        if (runRows > 0) {
+            logger.info("Swept {} abandoned carts ({} rows) in {} ms", runCarts, runRows, elapsed);
+        }
+    }
+
+    public CartSweepStats stats() {
+        return new CartSweepStats(runs.get(), cartsSwept.get(), rowsSwept.get(), totalSweepMillis.get(),
+                lastRunRowsSwept, lastRunMillis, lastRunAt);
+    }
+
+    // Carts with any line touched since the cutoff are still live and keep all their lines. The carts' rows stay
+    // locked from the check to the delete, so a line added or changed in between cannot be lost with them.
+    private int[] sweepCarts(Set<Long> userIds, LocalDateTime cutoff) {
+        Map<Long, LocalDateTime> lastTouched = cartItemBatchRepository.lockLastTouched(userIds);
+        List<Long> idleUsers = lastTouched.entrySet().stream()
+                .filter(cart -> cart.getValue().isBefore(cutoff))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (idleUsers.isEmpty()) {
+            return new int[]{0, 0};
+        }
+        return new int[]{idleUsers.size(), cartItemBatchRepository.deleteForUsers(idleUsers)};
+    }
+}
@@ -0,0 +1,12 @@
+package com.project.ecommerce.cart;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// A decoded guest cart token. The nonce is chosen when the cart is first created and carried through every
+// change, so the cart can be merged at sign-in only once; a missing or rejected token decodes to an empty cart
+public record GuestCart(String nonce, Map<Long, Integer> quantities) {
+    public static GuestCart empty() {
+        return new GuestCart(null, new LinkedHashMap<>());
+    }
+}
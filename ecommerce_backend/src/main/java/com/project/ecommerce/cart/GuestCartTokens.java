@@ -0,0 +1,124 @@
+package com.project.ecommerce.cart;
+
+import com.project.ecommerce.security.jwt.JwtUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+// A guest cart kept entirely by the client as "<payload>.<signature>", both base64url. The payload is
+// "<expiresAtMillis>|<nonce>|<productId>:<quantity>,..." and the signature an HMAC-SHA256 of it under a key
+// derived from the JWT secret, so a cart cannot be forged or edited and costs nothing on the server until sign-in.
+@Component
+public class GuestCartTokens {
+    private static final Logger logger = LoggerFactory.getLogger(GuestCartTokens.class);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int NONCE_BYTES = 16;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Value("${cart.guest.ttl-ms:604800000}")
+    private long ttlMillis;
+
+    @Value("${cart.guest.max-lines:50}")
+    private int maxLines;
+
+    private SecretKey key;
+
+    @PostConstruct
+    public void init() {
+        key = jwtUtils.deriveKey("guest-cart");
+    }
+
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    // A null nonce starts a new cart
+    public String encode(String nonce, Map<Long, Integer> quantitiesByProductId) {
+        if (nonce == null) {
+            byte[] random = new byte[NONCE_BYTES];
+            RANDOM.nextBytes(random);
+            nonce = ENCODER.encodeToString(random);
+        }
+        StringJoiner lines = new StringJoiner(",");
+        quantitiesByProductId.forEach((productId, quantity) -> lines.add(productId + ":" + quantity));
+        byte[] payload = ((System.currentTimeMillis() + ttlMillis) + "|" + nonce + "|" + lines)
+                .getBytes(StandardCharsets.US_ASCII);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    // Quantities by product id in the order they were added; empty for a missing, tampered or expired token
+    public GuestCart decode(String token) {
+        if (token == null || token.isBlank()) {
+            return GuestCart.empty();
+        }
+
+        try {
+            int dot = token.indexOf('.');
+            if (dot < 0) {
+                throw new IllegalArgumentException("missing signature");
+            }
+            byte[] payload = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                throw new IllegalArgumentException("bad signature");
+            }
+
+            String[] parts = new String(payload, StandardCharsets.US_ASCII).split("\\|", 3);
+            if (parts.length != 3 || parts[1].isEmpty()) {
+                throw new IllegalArgumentException("bad payload");
+            }
+            if (Long.parseLong(parts[0]) < System.currentTimeMillis()) {
+                throw new IllegalArgumentException("expired");
+            }
+            String[] lines = parts[2].isEmpty() ? new String[0] : parts[2].split(",");
+            if (lines.length > maxLines) {
+                throw new IllegalArgumentException("too many lines");
+            }
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            for (String line : lines) {
+                String[] fields = line.split(":");
+                int quantity = Integer.parseInt(fields[1]);
+                if (quantity <= 0) {
+                    throw new IllegalArgumentException("bad quantity");
+                }
+                quantities.put(Long.parseLong(fields[0]), quantity);
+            }
+            return new GuestCart(parts[1], quantities);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            logger.debug("Ignoring guest cart token: {}", e.getMessage());
+            return GuestCart.empty();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Could not sign guest cart", e);
+        }
+    }
+}
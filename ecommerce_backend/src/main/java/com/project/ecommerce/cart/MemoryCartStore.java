@@ -0,0 +1,541 @@
+package com.project.ecommerce.cart;
+
+import com.project.ecommerce.dto.CartDto;
+import com.project.ecommerce.dto.CartItemDto;
+import com.project.ecommerce.dto.CartOperation;
+import com.project.ecommerce.dto.ProductDto;
+import com.project.ecommerce.repository.CartItemBatchRepository;
+import com.project.ecommerce.repository.CartItemRepository;
+import com.project.ecommerce.service.ProductService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Live carts held in memory and written behind to cart_items. Each user's cart is guarded by one of a fixed
+// set of striped locks; changes are coalesced per cart line and flushed in batches by a single writer thread,
+// which also evicts idle carts, so a flush and an eviction of the same cart never overlap. A cart is only
+// ever evicted once all of its changes are in the database.
+@Component
+public class MemoryCartStore {
+    private static final Logger logger = LoggerFactory.getLogger(MemoryCartStore.class);
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartItemBatchRepository cartItemBatchRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StockReservations stockReservations;
+
+    @Value("${cart.memory.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.memory.lock-stripes:64}")
+    private int lockStripes;
+
+    @Value("${cart.memory.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    @Value("${cart.memory.idle-ms:1800000}")
+    private long idleMillis;
+
+    @Value("${cart.memory.id-block-size:100}")
+    private int idBlockSize;
+
+    @Value("${cart.memory.max-retry-delay-ms:60000}")
+    private long maxRetryDelayMillis;
+
+    private final Map<Long, MemoryCart> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private ReentrantLock[] locks;
+    private TransactionTemplate newTransaction;
+    private ScheduledExecutorService writer;
+    private long nextId;
+    private long lastId = -1;
+
+    @PostConstruct
+    public void init() {
+        locks = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (!enabled) {
+            return;
+        }
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        writer.scheduleWithFixedDelay(this::evictIdle, idleMillis, Math.max(idleMillis / 10, 1000), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+        flush(true);
+    }
+
+    public CartDto getCart(Long userId) {
+        return withCart(userId, this::toDto);
+    }
+
+    public CartDto add(Long userId, Long productId, int quantity) {
+        return withCart(userId, cart -> {
+            addLine(userId, cart, productId, quantity);
+            return toDto(cart);
+        });
+    }
+
+    public CartDto update(Long userId, Long cartItemId, int quantity) {
+        return withCart(userId, cart -> {
+            updateLine(userId, cart, cartItemId, quantity);
+            return toDto(cart);
+        });
+    }
+
+    public CartDto remove(Long userId, Long cartItemId) {
+        return withCart(userId, cart -> {
+            removeLine(userId, cart, findLine(cart, cartItemId));
+            return toDto(cart);
+        });
+    }
+
+    // All or nothing: the cart is restored if any operation fails
+    public CartDto apply(Long userId, List<CartOperation> operations) {
+        return withCart(userId, cart -> {
+            MemoryCart before = cart.copy();
+            Map<Long, Integer> heldBefore = stockReservations.isEnabled() ? stockReservations.getHolds(userId) : null;
+            try {
+                for (CartOperation operation : operations) {
+                    int quantity = requireQuantity(operation);
+                    switch (operation.getType()) {
+                        case ADD -> addLine(userId, cart, operation.getProductId(), quantity);
+                        case UPDATE -> updateLine(userId, cart, operation.getCartItemId(), quantity);
+                        case REMOVE -> removeLine(userId, cart, findLine(cart, operation.getCartItemId()));
+                    }
+                }
+            } catch (RuntimeException e) {
+                cart.restore(before);
+                if (heldBefore != null) {
+                    stockReservations.restore(userId, heldBefore);
+                }
+                throw e;
+            }
+            return toDto(cart);
+        });
+    }
+
+    // Adds quantities to the cart's lines without checking stock or taking holds, for a guest cart brought in
+    // at sign-in
+    public void merge(Long userId, Map<Long, Integer> quantitiesByProductId) {
+        withCart(userId, cart -> {
+            quantitiesByProductId.forEach((productId, quantity) -> {
+                Line line = findProductLine(cart, productId);
+                setLine(cart, line, productId, (line != null ? line.quantity : 0) + quantity);
+            });
+            return null;
+        });
+    }
+
+    public void clear(Long userId) {
+        withCart(userId, cart -> {
+            cart.lines.clear();
+            cart.upserted.clear();
+            cart.deleted.clear();
+            cart.clearAll = true;
+            return null;
+        });
+    }
+
+    // Runs action on those of the users whose carts are not held here, with their stripes locked throughout so
+    // none of those carts can be loaded or changed meanwhile. A held cart was used within idle-ms, even if its
+    // rows have not been written for a while.
+    public <T> T withCartsNotHeld(Collection<Long> userIds, Function<Set<Long>, T> action) {
+        // Stripes are taken in index order, so two callers can never wait on each other
+        SortedSet<Integer> stripes = new TreeSet<>();
+        userIds.forEach(userId -> stripes.add(stripeFor(userId)));
+        List<ReentrantLock> held = new ArrayList<>();
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].lock();
+                held.add(locks[stripe]);
+            }
+            Set<Long> notHeld = new LinkedHashSet<>(userIds);
+            notHeld.removeIf(carts::containsKey);
+            return action.apply(notHeld);
+        } finally {
+            held.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    // Product id -> quantity for every line, in the order they were added
+    public Map<Long, Integer> getQuantities(Long userId) {
+        return withCart(userId, cart -> {
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            cart.lines.values().forEach(line -> quantities.put(line.productId, line.quantity));
+            return quantities;
+        });
+    }
+
+    private <T> T withCart(Long userId, Function<MemoryCart, T> action) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            MemoryCart cart = carts.computeIfAbsent(userId, this::load);
+            cart.lastAccess = System.currentTimeMillis();
+            T result = action.apply(cart);
+            if (cart.isDirty()) {
+                dirtyUsers.add(userId);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private MemoryCart load(Long userId) {
+        MemoryCart cart = new MemoryCart();
+        for (CartItemDto item : cartItemRepository.findDtosByUserId(userId)) {
+            cart.lines.put(item.getId(), new Line(item.getId(), item.getProductId(), item.getQuantity()));
+        }
+        return cart;
+    }
+
+    private void addLine(Long userId, MemoryCart cart, Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new RuntimeException("Quantity must be greater than zero");
+        }
+        Line line = findProductLine(cart, productId);
+        int newQuantity = (line != null ? line.quantity : 0) + quantity;
+        checkStock(userId, productId, newQuantity);
+        setLine(cart, line, productId, newQuantity);
+    }
+
+    private Line findProductLine(MemoryCart cart, Long productId) {
+        return cart.lines.values().stream()
+                .filter(candidate -> candidate.productId.equals(productId))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void setLine(MemoryCart cart, Line line, Long productId, int quantity) {
+        if (line == null) {
+            line = new Line(allocateId(), productId, 0);
+            cart.lines.put(line.id, line);
+        }
+        line.quantity = quantity;
+        cart.upserted.add(line.id);
+    }
+
+    private void updateLine(Long userId, MemoryCart cart, Long cartItemId, int quantity) {
+        Line line = findLine(cart, cartItemId);
+        if (quantity <= 0) {
+            removeLine(userId, cart, line);
+            return;
+        }
+        checkStock(userId, line.productId, quantity);
+        line.quantity = quantity;
+        cart.upserted.add(line.id);
+    }
+
+    private void checkStock(Long userId, Long productId, int quantity) {
+        int stock = productService.getProductById(productId).getStockQuantity();
+        if (stockReservations.isEnabled()) {
+            stockReservations.reserve(userId, productId, quantity, stock);
+        } else if (stock < quantity) {
+            throw new RuntimeException("Not enough stock available");
+        }
+    }
+
+    private int requireQuantity(CartOperation operation) {
+        if (operation.getType() == CartOperation.Type.REMOVE) {
+            return 0;
+        }
+        if (operation.getQuantity() == null) {
+            throw new RuntimeException("Quantity is required for " + operation.getType() + " operations");
+        }
+        return operation.getQuantity();
+    }
+
+    private Line findLine(MemoryCart cart, Long cartItemId) {
+        Line line = cart.lines.get(cartItemId);
+        if (line == null) {
+            throw new RuntimeException("Cart item not found with id: " + cartItemId);
+        }
+        return line;
+    }
+
+    private void removeLine(Long userId, MemoryCart cart, Line line) {
+        cart.lines.remove(line.id);
+        cart.upserted.remove(line.id);
+        cart.deleted.add(line.id);
+        if (stockReservations.isEnabled()) {
+            stockReservations.release(userId, line.productId);
+        }
+    }
+
+    private CartDto toDto(MemoryCart cart) {
+        List<CartItemDto> items = new ArrayList<>();
+        for (Line line : cart.lines.values()) {
+            ProductDto product = productService.getProductById(line.productId);
+            items.add(new CartItemDto(line.id, product.getId(), product.getName(), product.getImageUrl(),
+                    product.getPrice(), line.quantity));
+        }
+
+        CartDto cartDto = new CartDto();
+        cartDto.setItems(items);
+        cartDto.setTotalItems(items.size());
+        cartDto.setTotalPrice(items.stream().map(CartItemDto::getSubtotal).reduce(BigDecimal.ZERO, BigDecimal::add));
+        return cartDto;
+    }
+
+    private synchronized long allocateId() {
+        if (nextId > lastId) {
+            Long first = newTransaction.execute(status -> cartItemBatchRepository.allocateIds(idBlockSize));
+            nextId = first;
+            lastId = first + idBlockSize - 1;
+        }
+        return nextId++;
+    }
+
+    private ReentrantLock lockFor(Long userId) {
+        return locks[stripeFor(userId)];
+    }
+
+    private int stripeFor(Long userId) {
+        return Math.floorMod(userId.hashCode(), locks.length);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush(false);
+        } catch (RuntimeException e) {
+            logger.error("Cart flush failed: {}", e.getMessage());
+        }
+    }
+
+    // Takes every dirty cart's pending changes and writes them in one transaction. If that fails, each cart is
+    // retried alone; a cart that still fails gets its changes back and waits out an exponential backoff.
+    private void flush(boolean ignoreBackoff) {
+        long now = System.currentTimeMillis();
+        List<PendingWrite> writes = new ArrayList<>();
+        for (Long userId : new ArrayList<>(dirtyUsers)) {
+            ReentrantLock lock = lockFor(userId);
+            lock.lock();
+            try {
+                MemoryCart cart = carts.get(userId);
+                if (cart == null || !cart.isDirty()) {
+                    dirtyUsers.remove(userId);
+                } else if (ignoreBackoff || cart.retryAt <= now) {
+                    dirtyUsers.remove(userId);
+                    writes.add(cart.takePending(userId));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (writes.isEmpty()) {
+            return;
+        }
+
+        try {
+            newTransaction.executeWithoutResult(status -> write(writes));
+            writes.stream().filter(PendingWrite::retry).forEach(pending -> written(pending.userId()));
+        } catch (RuntimeException e) {
+            for (PendingWrite pending : writes) {
+                try {
+                    newTransaction.executeWithoutResult(status -> write(List.of(pending)));
+                    if (pending.retry()) {
+                        written(pending.userId());
+                    }
+                } catch (RuntimeException cartFailure) {
+                    logger.warn("Could not save cart changes for user {}, will retry: {}",
+                            pending.userId(), cartFailure.getMessage());
+                    requeue(pending);
+                }
+            }
+        }
+    }
+
+    private void written(Long userId) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            MemoryCart cart = carts.get(userId);
+            if (cart != null) {
+                cart.failures = 0;
+                cart.retryAt = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Puts a failed write's changes back into the cart, except where a later change to the cart replaces them
+    private void requeue(PendingWrite pending) {
+        ReentrantLock lock = lockFor(pending.userId());
+        lock.lock();
+        try {
+            MemoryCart cart = carts.get(pending.userId());
+            if (pending.clearAll()) {
+                cart.clearAll = true;
+            }
+            for (Long lineId : pending.deleted()) {
+                if (!cart.lines.containsKey(lineId)) {
+                    cart.deleted.add(lineId);
+                }
+            }
+            for (Line line : pending.upserts()) {
+                // A line that is gone was removed or cleared since, which is already pending
+                if (cart.lines.containsKey(line.id)) {
+                    cart.upserted.add(line.id);
+                }
+            }
+
+            cart.failures++;
+            long delay = flushIntervalMillis << Math.min(cart.failures, 20);
+            cart.retryAt = System.currentTimeMillis() + Math.min(delay, maxRetryDelayMillis);
+            dirtyUsers.add(pending.userId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(List<PendingWrite> writes) {
+        Set<Long> clearedUsers = new HashSet<>();
+        Set<Long> deletedLines = new HashSet<>();
+        List<Object[]> upserts = new ArrayList<>();
+        for (PendingWrite pending : writes) {
+            if (pending.clearAll()) {
+                clearedUsers.add(pending.userId());
+            }
+            deletedLines.addAll(pending.deleted());
+            pending.upserts().forEach(line ->
+                    upserts.add(new Object[]{line.id, pending.userId(), line.productId, line.quantity}));
+        }
+        cartItemBatchRepository.deleteByUserIds(clearedUsers);
+        cartItemBatchRepository.deleteByIds(deletedLines);
+        cartItemBatchRepository.upsert(upserts);
+    }
+
+    private void evictIdle() {
+        long idleSince = System.currentTimeMillis() - idleMillis;
+        for (Map.Entry<Long, MemoryCart> entry : carts.entrySet()) {
+            if (entry.getValue().lastAccess < idleSince) {
+                ReentrantLock lock = lockFor(entry.getKey());
+                lock.lock();
+                try {
+                    MemoryCart cart = carts.get(entry.getKey());
+                    if (cart != null && cart.lastAccess < idleSince && !cart.isDirty()) {
+                        carts.remove(entry.getKey());
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private static final class MemoryCart {
+        private final Map<Long, Line> lines = new LinkedHashMap<>();
+        // Pending changes, coalesced per line until the next flush
+        private final Set<Long> upserted = new HashSet<>();
+        private final Set<Long> deleted = new HashSet<>();
+        private boolean clearAll;
+        private volatile long lastAccess;
+        // Consecutive failed writes, and when the writer may try again
+        private int failures;
+        private long retryAt;
+
+        private MemoryCart copy() {
+            MemoryCart copy = new MemoryCart();
+            lines.values().forEach(line -> copy.lines.put(line.id, new Line(line.id, line.productId, line.quantity)));
+            copy.upserted.addAll(upserted);
+            copy.deleted.addAll(deleted);
+            copy.clearAll = clearAll;
+            return copy;
+        }
+
+        private void restore(MemoryCart snapshot) {
+            lines.clear();
+            lines.putAll(snapshot.lines);
+            upserted.clear();
+            upserted.addAll(snapshot.upserted);
+            deleted.clear();
+            deleted.addAll(snapshot.deleted);
+            clearAll = snapshot.clearAll;
+        }
+
+        private boolean isDirty() {
+            return clearAll || !upserted.isEmpty() || !deleted.isEmpty();
+        }
+
+        private PendingWrite takePending(Long userId) {
+            List<Line> upserts = new ArrayList<>();
+            for (Long lineId : upserted) {
+                Line line = lines.get(lineId);
+                upserts.add(new Line(line.id, line.productId, line.quantity));
+            }
+            PendingWrite pending = new PendingWrite(userId, clearAll, new HashSet<>(deleted), upserts, failures > 0);
+            upserted.clear();
+            deleted.clear();
+            clearAll = false;
+            return pending;
+        }
+    }
+
+    private static final class Line {
+        private final Long id;
+        private final Long productId;
+        private int quantity;
+
+        private Line(Long id, Long productId, int quantity) {
+            this.id = id;
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+    }
+
+    private record PendingWrite(Long userId, boolean clearAll, Set<Long> deleted, List<Line> upserts, boolean retry) {
+    }
+}
@@ -0,0 +1,225 @@
+package com.project.ecommerce.cart;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Soft, time-limited holds on stock taken when products go into a cart. A user can add a product only if its
+// stock less everyone else's holds covers it. Holds live in memory only and lapse ttl-ms after the cart line
+// was last changed, expired by a timing wheel rather than a timer per hold. They are not a guarantee:
+// checkout's conditional stock decrement is still what decides.
+@Component
+public class StockReservations {
+    private static final Logger logger = LoggerFactory.getLogger(StockReservations.class);
+
+    @Value("${cart.reservations.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.reservations.ttl-ms:900000}")
+    private long ttlMillis;
+
+    @Value("${cart.reservations.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${cart.reservations.lock-stripes:64}")
+    private int lockStripes;
+
+    // User id -> product id -> hold; a user's map is only changed inside byUser.compute
+    private final Map<Long, Map<Long, Reservation>> byUser = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> reservedByProduct = new ConcurrentHashMap<>();
+    private ReentrantLock[] locks;
+    private TimingWheel<Reservation> wheel;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    public void init() {
+        locks = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        if (!enabled) {
+            return;
+        }
+
+        wheel = new TimingWheel<>(tickMillis, 3, System.currentTimeMillis());
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-reservation-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Sets the user's hold on the product to quantity and restarts its expiry
+    public void reserve(Long userId, Long productId, int quantity, int stock) {
+        ReentrantLock lock = lockFor(productId);
+        lock.lock();
+        try {
+            Reservation current = held(userId, productId);
+            int mine = current != null ? current.quantity() : 0;
+            int others = reservedByProduct.getOrDefault(productId, 0) - mine;
+            if (stock - others < quantity) {
+                throw new RuntimeException("Not enough stock available");
+            }
+            hold(userId, productId, quantity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(Long userId, Long productId) {
+        ReentrantLock lock = lockFor(productId);
+        lock.lock();
+        try {
+            drop(userId, productId, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void releaseAll(Long userId) {
+        Map<Long, Reservation> held = byUser.get(userId);
+        if (held != null) {
+            new ArrayList<>(held.keySet()).forEach(productId -> release(userId, productId));
+        }
+    }
+
+    // Puts the user's holds back to exactly these quantities without checking stock, after a failed batch
+    public void restore(Long userId, Map<Long, Integer> quantitiesByProductId) {
+        Map<Long, Reservation> held = byUser.get(userId);
+        if (held != null) {
+            new ArrayList<>(held.keySet()).stream()
+                    .filter(productId -> !quantitiesByProductId.containsKey(productId))
+                    .forEach(productId -> release(userId, productId));
+        }
+        quantitiesByProductId.forEach((productId, quantity) -> {
+            ReentrantLock lock = lockFor(productId);
+            lock.lock();
+            try {
+                hold(userId, productId, quantity);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    // A copy of the user's current holds by product, for putting them back with restore
+    public Map<Long, Integer> getHolds(Long userId) {
+        Map<Long, Integer> holds = new HashMap<>();
+        Map<Long, Reservation> held = byUser.get(userId);
+        if (held != null) {
+            held.forEach((productId, reservation) -> holds.put(productId, reservation.quantity()));
+        }
+        return holds;
+    }
+
+    // Puts one hold back to quantity, or drops it when quantity is null, without checking stock
+    public void restore(Long userId, Long productId, Integer quantity) {
+        ReentrantLock lock = lockFor(productId);
+        lock.lock();
+        try {
+            if (quantity != null) {
+                hold(userId, productId, quantity);
+            } else {
+                drop(userId, productId, null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Integer getHold(Long userId, Long productId) {
+        Reservation reservation = held(userId, productId);
+        return reservation != null ? reservation.quantity() : null;
+    }
+
+    public int getReserved(Long productId) {
+        return reservedByProduct.getOrDefault(productId, 0);
+    }
+
+    private void hold(Long userId, Long productId, int quantity) {
+        Reservation reservation = new Reservation(userId, productId, quantity);
+        Reservation[] replaced = new Reservation[1];
+        byUser.compute(userId, (id, held) -> {
+            Map<Long, Reservation> holds = held != null ? held : new ConcurrentHashMap<>();
+            replaced[0] = holds.put(productId, reservation);
+            return holds;
+        });
+        adjust(productId, quantity - (replaced[0] != null ? replaced[0].quantity() : 0));
+        wheel.schedule(reservation, System.currentTimeMillis() + ttlMillis);
+    }
+
+    // Removes the user's hold on the product, or only that exact hold when expected is given
+    private void drop(Long userId, Long productId, Reservation expected) {
+        Reservation[] removed = new Reservation[1];
+        byUser.computeIfPresent(userId, (id, held) -> {
+            Reservation current = held.get(productId);
+            if (current != null && (expected == null || current == expected)) {
+                held.remove(productId);
+                removed[0] = current;
+            }
+            return held.isEmpty() ? null : held;
+        });
+        if (removed[0] != null) {
+            adjust(productId, -removed[0].quantity());
+        }
+    }
+
+    private Reservation held(Long userId, Long productId) {
+        Map<Long, Reservation> held = byUser.get(userId);
+        return held != null ? held.get(productId) : null;
+    }
+
+    private void adjust(Long productId, int delta) {
+        reservedByProduct.compute(productId, (id, reserved) -> {
+            int total = (reserved != null ? reserved : 0) + delta;
+            return total > 0 ? total : null;
+        });
+    }
+
+    // A refreshed hold is a new Reservation, so the old one's timeout no longer matches and is ignored
+    private void tick() {
+        try {
+            wheel.advance(System.currentTimeMillis(), reservation -> {
+                ReentrantLock lock = lockFor(reservation.productId());
+                lock.lock();
+                try {
+                    drop(reservation.userId(), reservation.productId(), reservation);
+                } finally {
+                    lock.unlock();
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("Stock reservation expiry failed: {}", e.getMessage());
+        }
+    }
+
+    private ReentrantLock lockFor(Long productId) {
+        return locks[Math.floorMod(productId.hashCode(), locks.length)];
+    }
+
+    private record Reservation(Long userId, Long productId, int quantity) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.project.ecommerce.cart;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+// Hierarchical timing wheel: level 0 has one slot per tick, and each level above it has slots 64 times as wide.
+// A timeout sits in the lowest level whose span covers it and moves down a level each time the wheel reaches
+// its slot, so scheduling and expiring are O(1) however many timeouts are pending. Any thread may schedule;
+// only the thread calling advance touches the wheels.
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    private final long tickMillis;
+    private final int levels;
+    private final List<List<Timeout<T>>> slots = new ArrayList<>();
+    private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, int levels, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.currentTick = startMillis / tickMillis;
+        for (int i = 0; i < levels * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    public void schedule(T item, long deadlineMillis) {
+        scheduled.add(new Timeout<>(item, (deadlineMillis + tickMillis - 1) / tickMillis));
+    }
+
+    // Moves the wheel up to nowMillis, handing every timeout that came due to expired
+    public void advance(long nowMillis, Consumer<T> expired) {
+        Timeout<T> timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            place(timeout, expired);
+        }
+
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // Cascade from the top down, so timeouts coming off a higher level can still land in a lower
+            // level's slot that is cascaded on this same tick
+            int topLevel = 0;
+            while (topLevel < levels - 1 && currentTick % (1L << (SLOT_BITS * (topLevel + 1))) == 0) {
+                topLevel++;
+            }
+            for (int level = topLevel; level > 0; level--) {
+                for (Timeout<T> due : take(level)) {
+                    place(due, expired);
+                }
+            }
+            for (Timeout<T> due : take(0)) {
+                expired.accept(due.item());
+            }
+        }
+    }
+
+    private void place(Timeout<T> timeout, Consumer<T> expired) {
+        long delta = timeout.tick() - currentTick;
+        if (delta <= 0) {
+            expired.accept(timeout.item());
+            return;
+        }
+
+        // Timeouts beyond the top level's span wrap around in it and are re-placed when their slot comes up
+        int level = 0;
+        while (level < levels - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        slots.get(level * SLOTS + slotIndex(timeout.tick(), level)).add(timeout);
+    }
+
+    private List<Timeout<T>> take(int level) {
+        int index = level * SLOTS + slotIndex(currentTick, level);
+        List<Timeout<T>> due = slots.get(index);
+        slots.set(index, new ArrayList<>());
+        return due;
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+
+    private record Timeout<T>(T item, long tick) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.project.ecommerce.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+// Runs once every bean is created but before the web server starts, so no request can insert with an id
+// handed out before the generator rows were moved past the existing ones
+@Component
+public class IdGeneratorInitializer implements SmartInitializingSingleton {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Tables that moved from IDENTITY to table-generated ids must hand out ids above the existing ones
+        for (String table : List.of("orders", "order_items", "cart_items", "outbox_events")) {
+            jdbcTemplate.update("INSERT INTO id_generators (name, next_val) " +
+                    "SELECT ?, COALESCE(MAX(id), 0) + 51 FROM " + table +
+                    " ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))", table);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.project.ecommerce.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Runs before the web server starts, so no checkout can insert an ACCEPTED order into the old ENUM column
+@Component
+public class OrderStatusColumnInitializer implements SmartInitializingSingleton {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Older schemas created orders.status as a MySQL ENUM, which rejects newly added statuses
+        Integer enumStatusColumns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE() " +
+                        "AND table_name = 'orders' AND column_name = 'status' AND data_type = 'enum'",
+                Integer.class);
+        if (enumStatusColumns != null && enumStatusColumns > 0) {
+            jdbcTemplate.execute("ALTER TABLE orders MODIFY status VARCHAR(20) NOT NULL");
+            System.out.println("Order status column migrated to VARCHAR");
+        }
+    }
+}
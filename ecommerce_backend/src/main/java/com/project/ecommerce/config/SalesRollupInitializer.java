@@ -0,0 +1,19 @@
+package com.project.ecommerce.config;
+
+import com.project.ecommerce.service.SalesRollupService;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Seeds sales rollups from existing orders the first time they are deployed. Runs before the web server
+// starts, so no order placed during the backfill can be counted both by it and by recordSale.
+@Component
+public class SalesRollupInitializer implements SmartInitializingSingleton {
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        salesRollupService.backfillIfEmpty();
+    }
+}
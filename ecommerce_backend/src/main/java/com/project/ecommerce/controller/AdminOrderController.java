@@ -0,0 +1,42 @@
+package com.project.ecommerce.controller;
+
+import com.project.ecommerce.dto.BulkStatusUpdateRequest;
+import com.project.ecommerce.dto.BulkStatusUpdateResponse;
+import com.project.ecommerce.dto.CursorPage;
+import com.project.ecommerce.dto.OrderDto;
+import com.project.ecommerce.model.Order;
+import com.project.ecommerce.service.OrderService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/admin/orders")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminOrderController {
+    @Autowired
+    private OrderService orderService;
+
+    @GetMapping
+    public ResponseEntity<CursorPage<OrderDto>> searchOrders(
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<OrderDto> orders = orderService.searchOrders(status, from, to, userId, cursor, size);
+        return ResponseEntity.ok(orders);
+    }
+
+    @PostMapping("/status")
+    public ResponseEntity<BulkStatusUpdateResponse> bulkUpdateStatus(@Valid @RequestBody BulkStatusUpdateRequest request) {
+        BulkStatusUpdateResponse response = orderService.bulkUpdateStatus(
+                request.getFromStatus(), request.getToStatus(), request.getLimit());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,23 @@
+package com.project.ecommerce.controller;
+
+import com.project.ecommerce.cache.CacheStats;
+import com.project.ecommerce.cache.CatalogCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@PreAuthorize("hasRole('ADMIN')")
+public class CacheController {
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, CacheStats>> getCacheStats() {
+        Map<String, CacheStats> stats = catalogCache.stats();
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,22 @@
+package com.project.ecommerce.controller;
+
+import com.project.ecommerce.cart.AbandonedCartSweeper;
+import com.project.ecommerce.dto.CartSweepStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/carts")
+@PreAuthorize("hasRole('ADMIN')")
+public class CartAdminController {
+    @Autowired
+    private AbandonedCartSweeper abandonedCartSweeper;
+
+    @GetMapping("/sweeper/stats")
+    public ResponseEntity<CartSweepStats> getSweeperStats() {
+        CartSweepStats stats = abandonedCartSweeper.stats();
+        return ResponseEntity.ok(stats);
+    }
+}
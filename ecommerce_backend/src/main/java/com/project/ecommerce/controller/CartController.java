@@ -1,7 +1,10 @@
 package com.project.ecommerce.controller;
 
+import com.project.ecommerce.dto.CartBatchRequest;
 import com.project.ecommerce.dto.CartDto;
 import com.project.ecommerce.service.CartService;
+import com.project.ecommerce.service.IdempotencyService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -14,6 +17,9 @@ public class CartController {
     @Autowired
     private CartService cartService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @GetMapping
     public ResponseEntity<CartDto> getCart() {
         CartDto cart = cartService.getCart();
@@ -21,9 +27,12 @@ public class CartController {
     }
 
     @PostMapping("/add")
-    public ResponseEntity<CartDto> addToCart(@RequestParam Long productId, @RequestParam Integer quantity) {
-        CartDto cart = cartService.addToCart(productId, quantity);
-        return ResponseEntity.ok(cart);
+    public ResponseEntity<CartDto> addToCart(@RequestParam Long productId, @RequestParam Integer quantity,
+                                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "cart-add", () -> {
+            CartDto cart = cartService.addToCart(productId, quantity);
+            return ResponseEntity.ok(cart);
+        });
     }
 
     @PutMapping("/update/{cartItemId}")
@@ -38,6 +47,13 @@ public class CartController {
         return ResponseEntity.ok(cart);
     }
 
+    // Applies every operation in one transaction; any failure leaves the cart unchanged
+    @PostMapping("/batch")
+    public ResponseEntity<CartDto> applyOperations(@Valid @RequestBody CartBatchRequest request) {
+        CartDto cart = cartService.applyOperations(request.getOperations());
+        return ResponseEntity.ok(cart);
+    }
+
     @DeleteMapping("/clear")
     public ResponseEntity<Void> clearCart() {
         cartService.clearCart();
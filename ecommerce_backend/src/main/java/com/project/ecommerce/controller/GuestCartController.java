@@ -0,0 +1,48 @@
+package com.project.ecommerce.controller;
+
+import com.project.ecommerce.dto.GuestCartResponse;
+import com.project.ecommerce.service.GuestCartService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// The current cart token goes in the X-Guest-Cart header and every response carries the updated one
+@RestController
+@RequestMapping("/api/guest-cart")
+public class GuestCartController {
+    private static final String TOKEN_HEADER = "X-Guest-Cart";
+
+    @Autowired
+    private GuestCartService guestCartService;
+
+    @GetMapping
+    public ResponseEntity<GuestCartResponse> getCart(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token) {
+        GuestCartResponse cart = guestCartService.getCart(token);
+        return ResponseEntity.ok(cart);
+    }
+
+    @PostMapping("/add")
+    public ResponseEntity<GuestCartResponse> addToCart(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            @RequestParam Long productId, @RequestParam Integer quantity) {
+        GuestCartResponse cart = guestCartService.addToCart(token, productId, quantity);
+        return ResponseEntity.ok(cart);
+    }
+
+    @PutMapping("/update/{productId}")
+    public ResponseEntity<GuestCartResponse> updateCartItem(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            @PathVariable Long productId, @RequestParam Integer quantity) {
+        GuestCartResponse cart = guestCartService.updateCartItem(token, productId, quantity);
+        return ResponseEntity.ok(cart);
+    }
+
+    @DeleteMapping("/remove/{productId}")
+    public ResponseEntity<GuestCartResponse> removeFromCart(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            @PathVariable Long productId) {
+        GuestCartResponse cart = guestCartService.removeFromCart(token, productId);
+        return ResponseEntity.ok(cart);
+    }
+}
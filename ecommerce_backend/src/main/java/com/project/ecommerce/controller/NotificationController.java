@@ -0,0 +1,24 @@
+package com.project.ecommerce.controller;
+
+import com.project.ecommerce.dto.CursorPage;
+import com.project.ecommerce.dto.OrderNotificationDto;
+import com.project.ecommerce.service.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/notifications")
+public class NotificationController {
+    @Autowired
+    private NotificationService notificationService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<CursorPage<OrderNotificationDto>> getNotifications(@RequestParam(required = false) String cursor,
+                                                                             @RequestParam(required = false) Integer size) {
+        CursorPage<OrderNotificationDto> notifications = notificationService.getNotifications(cursor, size);
+        return ResponseEntity.ok(notifications);
+    }
+}
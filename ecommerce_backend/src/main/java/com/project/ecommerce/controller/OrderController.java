@@ -1,14 +1,16 @@
 package com.project.ecommerce.controller;
 
 import com.project.ecommerce.dto.CheckoutRequest;
+import com.project.ecommerce.dto.CursorPage;
 import com.project.ecommerce.dto.OrderDto;
 import com.project.ecommerce.model.Order;
+import com.project.ecommerce.service.AsyncCheckoutService;
+import com.project.ecommerce.service.IdempotencyService;
 import com.project.ecommerce.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -16,10 +18,18 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private AsyncCheckoutService asyncCheckoutService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @GetMapping
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<OrderDto>> getUserOrders() {
-        List<OrderDto> orders = orderService.getUserOrders();
+    public ResponseEntity<CursorPage<OrderDto>> getUserOrders(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size,
+                                                              @RequestParam(defaultValue = "false") boolean summary) {
+        CursorPage<OrderDto> orders = orderService.getUserOrders(cursor, size, summary);
         return ResponseEntity.ok(orders);
     }
 
@@ -32,9 +42,17 @@ public class OrderController {
 
     @PostMapping("/checkout")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<OrderDto> checkout(@RequestBody CheckoutRequest checkoutRequest) {
-        OrderDto order = orderService.checkout(checkoutRequest);
-        return ResponseEntity.ok(order);
+    public ResponseEntity<OrderDto> checkout(@RequestBody CheckoutRequest checkoutRequest,
+                                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "checkout", () -> {
+            if (asyncCheckoutService.isEnabled()) {
+                OrderDto order = asyncCheckoutService.checkout(checkoutRequest);
+                return ResponseEntity.accepted().body(order);
+            }
+
+            OrderDto order = orderService.checkout(checkoutRequest);
+            return ResponseEntity.ok(order);
+        });
     }
 
     @PutMapping("/{id}/status")
@@ -0,0 +1,22 @@
+package com.project.ecommerce.controller;
+
+import com.project.ecommerce.dto.OutboxStats;
+import com.project.ecommerce.outbox.OutboxDispatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/outbox")
+@PreAuthorize("hasRole('ADMIN')")
+public class OutboxController {
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @GetMapping("/stats")
+    public ResponseEntity<OutboxStats> getOutboxStats() {
+        OutboxStats stats = outboxDispatcher.stats();
+        return ResponseEntity.ok(stats);
+    }
+}
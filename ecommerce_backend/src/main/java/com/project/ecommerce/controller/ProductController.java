@@ -1,11 +1,20 @@
 package com.project.ecommerce.controller;
 
+import com.project.ecommerce.dto.AutocompleteSuggestion;
+import com.project.ecommerce.dto.CursorPage;
 import com.project.ecommerce.dto.ProductDto;
+import com.project.ecommerce.dto.ProductFilterPage;
+import com.project.ecommerce.dto.ProductImportResult;
+import com.project.ecommerce.service.ProductExportService;
+import com.project.ecommerce.service.ProductImportService;
 import com.project.ecommerce.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -14,9 +23,16 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
     @GetMapping
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
-        List<ProductDto> products = productService.getAllProducts();
+    public ResponseEntity<CursorPage<ProductDto>> getAllProducts(@RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer size) {
+        CursorPage<ProductDto> products = productService.getAllProducts(cursor, size);
         return ResponseEntity.ok(products);
     }
 
@@ -27,14 +43,36 @@ public class ProductController {
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<ProductDto>> getProductsByCategory(@PathVariable Long categoryId) {
-        List<ProductDto> products = productService.getProductsByCategory(categoryId);
+    public ResponseEntity<CursorPage<ProductDto>> getProductsByCategory(@PathVariable Long categoryId,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) Integer size) {
+        CursorPage<ProductDto> products = productService.getProductsByCategory(categoryId, cursor, size);
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ProductDto>> searchProducts(@RequestParam String keyword) {
-        List<ProductDto> products = productService.searchProducts(keyword);
+    public ResponseEntity<CursorPage<ProductDto>> searchProducts(@RequestParam String keyword,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer size) {
+        CursorPage<ProductDto> products = productService.searchProducts(keyword, cursor, size);
+        return ResponseEntity.ok(products);
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteSuggestion>> autocomplete(@RequestParam String prefix,
+                                                                     @RequestParam(required = false) Integer limit) {
+        List<AutocompleteSuggestion> suggestions = productService.autocomplete(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFilterPage> filterProducts(@RequestParam(required = false) String keyword,
+                                                            @RequestParam(required = false) List<Long> categoryId,
+                                                            @RequestParam(required = false) List<String> priceBand,
+                                                            @RequestParam(required = false) Boolean inStock,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer size) {
+        ProductFilterPage products = productService.filterProducts(keyword, categoryId, priceBand, inStock, cursor, size);
         return ResponseEntity.ok(products);
     }
 
@@ -45,6 +83,26 @@ public class ProductController {
         return ResponseEntity.ok(createdProduct);
     }
 
+    // Written straight to the response on the request thread, so long exports are not cut off by async timeouts
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportProducts(@RequestParam(defaultValue = "ndjson") String format,
+                               HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=products." + (csv ? "csv" : "ndjson"));
+        productExportService.exportProducts(response.getOutputStream(), csv);
+    }
+
+    // Streams the request body straight into the importer instead of binding it
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportResult> importProducts(HttpServletRequest request) throws IOException {
+        boolean ndjson = request.getContentType().contains("ndjson");
+        ProductImportResult result = productImportService.importProducts(request.getInputStream(), ndjson);
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ProductDto> updateProduct(@PathVariable Long id, @RequestBody ProductDto productDto) {
@@ -52,6 +110,20 @@ public class ProductController {
         return ResponseEntity.ok(updatedProduct);
     }
 
+    @PutMapping("/{id}/stock-buckets")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductDto> stripeStock(@PathVariable Long id, @RequestParam Integer buckets) {
+        ProductDto product = productService.stripeStock(id, buckets);
+        return ResponseEntity.ok(product);
+    }
+
+    @DeleteMapping("/{id}/stock-buckets")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductDto> unstripeStock(@PathVariable Long id) {
+        ProductDto product = productService.unstripeStock(id);
+        return ResponseEntity.ok(product);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
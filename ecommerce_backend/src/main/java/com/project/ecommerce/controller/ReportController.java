@@ -0,0 +1,28 @@
+package com.project.ecommerce.controller;
+
+import com.project.ecommerce.dto.SalesReportRow;
+import com.project.ecommerce.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/reports")
+@PreAuthorize("hasRole('ADMIN')")
+public class ReportController {
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @GetMapping("/sales")
+    public ResponseEntity<List<SalesReportRow>> getSalesReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") SalesRollupService.Grouping groupBy) {
+        List<SalesReportRow> report = salesRollupService.getReport(from, to, groupBy);
+        return ResponseEntity.ok(report);
+    }
+}
@@ -10,4 +10,7 @@ public class AuthRequest {
 
     @NotBlank
     private String password;
+
+    // Optional guest cart token to merge into the user's cart
+    private String guestCart;
 }
\ No newline at end of file
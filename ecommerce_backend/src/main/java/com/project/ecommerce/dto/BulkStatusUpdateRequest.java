@@ -0,0 +1,16 @@
+package com.project.ecommerce.dto;
+
+import com.project.ecommerce.model.Order;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class BulkStatusUpdateRequest {
+    @NotNull
+    private Order.OrderStatus fromStatus;
+
+    @NotNull
+    private Order.OrderStatus toStatus;
+
+    private Integer limit;
+}
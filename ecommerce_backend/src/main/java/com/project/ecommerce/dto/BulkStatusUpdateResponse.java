@@ -0,0 +1,11 @@
+package com.project.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BulkStatusUpdateResponse {
+    private int updated;
+    private int chunks;
+}
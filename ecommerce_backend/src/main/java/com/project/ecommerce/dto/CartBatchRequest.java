@@ -0,0 +1,12 @@
+package com.project.ecommerce.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class CartBatchRequest {
+    @NotEmpty
+    private List<@Valid CartOperation> operations;
+}
@@ -1,9 +1,11 @@
 package com.project.ecommerce.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
 @Data
+@NoArgsConstructor
 public class CartItemDto {
     private Long id;
     private Long productId;
@@ -12,4 +14,15 @@ public class CartItemDto {
     private BigDecimal productPrice;
     private Integer quantity;
     private BigDecimal subtotal;
+
+    public CartItemDto(Long id, Long productId, String productName, String productImageUrl,
+                       BigDecimal productPrice, Integer quantity) {
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.productImageUrl = productImageUrl;
+        this.productPrice = productPrice;
+        this.quantity = quantity;
+        this.subtotal = productPrice.multiply(BigDecimal.valueOf(quantity));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.project.ecommerce.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+// ADD takes productId, UPDATE and REMOVE take cartItemId
+@Data
+public class CartOperation {
+    public enum Type {
+        ADD, UPDATE, REMOVE
+    }
+
+    @NotNull
+    private Type type;
+
+    private Long productId;
+
+    private Long cartItemId;
+
+    private Integer quantity;
+}
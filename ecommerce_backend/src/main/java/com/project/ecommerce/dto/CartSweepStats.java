@@ -0,0 +1,19 @@
+package com.project.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSweepStats {
+    private long runs;
+    private long cartsSwept;
+    private long rowsSwept;
+    private long totalSweepMs;
+    private long lastRunRowsSwept;
+    private long lastRunMs;
+    private LocalDateTime lastRunAt;
+}
@@ -0,0 +1,14 @@
+package com.project.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Guest cart lines have no id; they are addressed by product id
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCartResponse {
+    private String token;
+    private CartDto cart;
+}
@@ -9,10 +9,12 @@ import java.util.List;
 @Data
 public class OrderDto {
     private Long id;
+    private Long userId;
     private LocalDateTime orderDate;
     private BigDecimal totalAmount;
     private String status;
     private String shippingAddress;
     private String paymentMethod;
+    private String failureReason;
     private List<OrderItemDto> items;
 }
\ No newline at end of file
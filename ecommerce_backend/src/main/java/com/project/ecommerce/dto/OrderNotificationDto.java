@@ -0,0 +1,16 @@
+package com.project.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderNotificationDto {
+    private Long id;
+    private Long orderId;
+    private String message;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.project.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStats {
+    private long pending;
+    private long oldestPendingAgeMs;
+    private long lastDeliveryLagMs;
+    private long delivered;
+    private long failed;
+    private LocalDateTime lastDispatchAt;
+}
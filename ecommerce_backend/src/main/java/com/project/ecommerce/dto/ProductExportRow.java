@@ -0,0 +1,22 @@
+package com.project.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+// Column names line up with the bulk import, so a CSV or NDJSON export can be fed straight back in
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductExportRow {
+    private Long id;
+    private String sku;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private String imageUrl;
+    private Integer stockQuantity;
+    private Long categoryId;
+    private String categoryName;
+}
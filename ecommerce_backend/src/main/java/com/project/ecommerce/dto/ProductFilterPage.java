@@ -0,0 +1,21 @@
+package com.project.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterPage {
+    private List<ProductDto> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int total;
+    private Map<Long, Integer> categoryCounts;
+    private Map<String, Integer> priceBandCounts;
+    private int inStockCount;
+    private int outOfStockCount;
+}
@@ -0,0 +1,16 @@
+package com.project.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ProductImportResult {
+    private long rows;
+    private long upserted;
+    private long failed;
+    // Capped at catalog.import.max-errors; failed still counts every rejected row
+    private List<ProductImportError> errors = new ArrayList<>();
+}
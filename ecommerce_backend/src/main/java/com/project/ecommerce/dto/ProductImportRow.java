@@ -0,0 +1,19 @@
+package com.project.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+// One line of a bulk import; the category may be given by id or by name
+@Data
+@NoArgsConstructor
+public class ProductImportRow {
+    private String sku;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private String imageUrl;
+    private Integer stockQuantity;
+    private Long categoryId;
+    private String categoryName;
+}
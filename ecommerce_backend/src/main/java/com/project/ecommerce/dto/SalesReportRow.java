@@ -0,0 +1,18 @@
+package com.project.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesReportRow {
+    private LocalDate salesDate;
+    private Long categoryId;
+    private Long productId;
+    private Long unitsSold;
+    private BigDecimal revenue;
+}
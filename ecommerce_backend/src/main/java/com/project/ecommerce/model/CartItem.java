@@ -4,18 +4,21 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", indexes = @Index(name = "idx_cart_items_touched", columnList = "last_touched, id"))
 public class CartItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cart_item_id")
+    @TableGenerator(name = "cart_item_id", table = "id_generators", pkColumnName = "name", valueColumnName = "next_val",
+            pkColumnValue = "cart_items", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -25,4 +28,14 @@ public class CartItem {
 
     @Column(nullable = false)
     private Integer quantity;
+
+    // Last time this line was added or changed; the abandoned-cart sweeper goes by the newest line of a cart
+    @Column(name = "last_touched")
+    private LocalDateTime lastTouched;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastTouched = LocalDateTime.now();
+    }
 }
\ No newline at end of file
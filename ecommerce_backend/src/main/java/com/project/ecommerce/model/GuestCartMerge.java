@@ -0,0 +1,22 @@
+package com.project.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// A guest cart merged at sign-in, kept until every token carrying its nonce has expired so none merges again
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "guest_cart_merges", indexes = @Index(name = "idx_guest_cart_merges_expires", columnList = "expires_at"))
+public class GuestCartMerge {
+    @Id
+    @Column(length = 32)
+    private String nonce;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,33 @@
+package com.project.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// A message to a customer about one of their orders. It is keyed on the outbox event it came from, so a
+// redelivered event writes nothing new.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "order_notifications",
+        indexes = @Index(name = "idx_order_notifications_user", columnList = "user_id, created_at, event_id"))
+public class OrderNotification {
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
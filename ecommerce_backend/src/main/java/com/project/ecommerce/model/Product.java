@@ -16,6 +16,10 @@ public class Product {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Supplier key used by the bulk import to upsert; products created through the API may leave it empty
+    @Column(unique = true, length = 64)
+    private String sku;
+
     @Column(nullable = false)
     private String name;
 
@@ -30,6 +34,9 @@ public class Product {
     @Column(nullable = false)
     private Integer stockQuantity;
 
+    // When set, stock lives in this many product_stock_buckets rows and stockQuantity stays at zero
+    private Integer stockBuckets;
+
     @ManyToOne
     @JoinColumn(name = "category_id")
     private Category category;
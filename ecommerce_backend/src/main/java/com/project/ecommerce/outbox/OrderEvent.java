@@ -0,0 +1,11 @@
+package com.project.ecommerce.outbox;
+
+import com.project.ecommerce.model.Order;
+import java.math.BigDecimal;
+
+// Payload of order events; fields that are unknown to the publisher (e.g. userId on bulk transitions) are null
+public record OrderEvent(Long orderId, Long userId, Order.OrderStatus fromStatus, Order.OrderStatus toStatus,
+                         BigDecimal totalAmount) {
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+    public static final String ORDER_STATUS_CHANGED = "ORDER_STATUS_CHANGED";
+}
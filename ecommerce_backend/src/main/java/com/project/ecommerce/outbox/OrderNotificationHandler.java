@@ -0,0 +1,29 @@
+package com.project.ecommerce.outbox;
+
+import com.project.ecommerce.model.OutboxEvent;
+import com.project.ecommerce.service.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.Set;
+
+// Turns order events into customer notifications off the request path
+@Component
+public class OrderNotificationHandler implements OutboxEventHandler {
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Override
+    public Set<String> eventTypes() {
+        return Set.of(OrderEvent.ORDER_CREATED, OrderEvent.ORDER_STATUS_CHANGED);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        OrderEvent orderEvent = outboxPublisher.readOrderEvent(event);
+        notificationService.recordOrderEvent(event.getId(), orderEvent.orderId(), orderEvent.userId(),
+                orderEvent.fromStatus(), orderEvent.toStatus(), event.getCreatedAt());
+    }
+}
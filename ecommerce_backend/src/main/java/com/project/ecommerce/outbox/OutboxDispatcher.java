@@ -0,0 +1,150 @@
+package com.project.ecommerce.outbox;
+
+import com.project.ecommerce.dto.OutboxStats;
+import com.project.ecommerce.model.OutboxEvent;
+import com.project.ecommerce.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Drains the outbox in batches. A batch is claimed by pushing available_at out by a lease, handlers run outside
+// any transaction, and only delivered events are deleted; a crash mid-batch redelivers once the lease expires.
+// It runs on its own thread so long scheduled jobs (rollups, index rebuilds) cannot hold up delivery.
+@Component
+public class OutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private List<OutboxEventHandler> handlers;
+
+    @Value("${outbox.dispatch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.dispatch.interval-ms:500}")
+    private long intervalMillis;
+
+    @Value("${outbox.dispatch.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.dispatch.lease-ms:30000}")
+    private long leaseMillis;
+
+    @Value("${outbox.dispatch.retry-delay-ms:1000}")
+    private long retryDelayMillis;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long lastDeliveryLagMillis;
+    private volatile LocalDateTime lastDispatchAt;
+    private ScheduledExecutorService dispatcher;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::dispatch, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+        }
+    }
+
+    public void dispatch() {
+        Map<String, List<OutboxEventHandler>> handlersByType = new HashMap<>();
+        for (OutboxEventHandler handler : handlers) {
+            handler.eventTypes().forEach(eventType ->
+                    handlersByType.computeIfAbsent(eventType, key -> new ArrayList<>()).add(handler));
+        }
+        try {
+            List<OutboxEvent> batch;
+            do {
+                batch = claimBatch();
+                deliver(batch, handlersByType);
+            } while (batch.size() == batchSize);
+            lastDispatchAt = LocalDateTime.now();
+        } catch (RuntimeException e) {
+            // An exception escaping here would cancel the schedule; leave the events for the next run
+            logger.error("Outbox dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    public OutboxStats stats() {
+        LocalDateTime oldest = outboxEventRepository.findOldestCreatedAt();
+        long oldestAge = oldest != null ? Duration.between(oldest, LocalDateTime.now()).toMillis() : 0;
+        return new OutboxStats(outboxEventRepository.count(), oldestAge, lastDeliveryLagMillis,
+                delivered.get(), failed.get(), lastDispatchAt);
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> events = outboxEventRepository.findAvailableForUpdate(now, batchSize);
+            if (!events.isEmpty()) {
+                outboxEventRepository.lease(events.stream().map(OutboxEvent::getId).collect(Collectors.toList()),
+                        now.plus(Duration.ofMillis(leaseMillis)));
+            }
+            return events;
+        });
+    }
+
+    private void deliver(List<OutboxEvent> events, Map<String, List<OutboxEventHandler>> handlersByType) {
+        List<Long> deliveredIds = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            try {
+                for (OutboxEventHandler handler : handlersByType.getOrDefault(event.getEventType(), List.of())) {
+                    handler.handle(event);
+                }
+                deliveredIds.add(event.getId());
+                lastDeliveryLagMillis = Duration.between(event.getCreatedAt(), LocalDateTime.now()).toMillis();
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                logger.warn("Outbox event {} ({}) failed on attempt {}: {}",
+                        event.getId(), event.getEventType(), event.getAttempts() + 1, e.getMessage());
+                LocalDateTime retryAt = LocalDateTime.now()
+                        .plus(Duration.ofMillis(retryDelayMillis << Math.min(event.getAttempts(), 8)));
+                String error = e.getMessage() != null && e.getMessage().length() > 500
+                        ? e.getMessage().substring(0, 500)
+                        : e.getMessage();
+                transactionTemplate.executeWithoutResult(status ->
+                        outboxEventRepository.markFailed(event.getId(), retryAt, error));
+            }
+        }
+
+        if (!deliveredIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteAllByIdInBatch(deliveredIds));
+            delivered.addAndGet(deliveredIds.size());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.project.ecommerce.outbox;
+
+import com.project.ecommerce.model.OutboxEvent;
+import java.util.Set;
+
+// Beans implementing this receive every outbox event of their types at least once, so handle() must be idempotent.
+// Throwing leaves the event in the outbox to be retried for all handlers of that type.
+public interface OutboxEventHandler {
+    Set<String> eventTypes();
+
+    void handle(OutboxEvent event);
+}
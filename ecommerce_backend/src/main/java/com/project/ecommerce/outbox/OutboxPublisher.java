@@ -0,0 +1,70 @@
+package com.project.ecommerce.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ecommerce.model.Order;
+import com.project.ecommerce.model.OutboxEvent;
+import com.project.ecommerce.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Events are only written inside the caller's transaction so they commit or roll back with the order change
+@Component
+public class OutboxPublisher {
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCreated(Order order) {
+        outboxEventRepository.save(toOutboxEvent(OrderEvent.ORDER_CREATED, new OrderEvent(
+                order.getId(), order.getUser().getId(), null, order.getStatus(), order.getTotalAmount())));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderStatusChanged(Order order, Order.OrderStatus fromStatus) {
+        outboxEventRepository.save(toOutboxEvent(OrderEvent.ORDER_STATUS_CHANGED, new OrderEvent(
+                order.getId(), order.getUser().getId(), fromStatus, order.getStatus(), order.getTotalAmount())));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderStatusChanged(Collection<Long> orderIds, Order.OrderStatus fromStatus, Order.OrderStatus toStatus) {
+        List<OutboxEvent> events = orderIds.stream()
+                .map(orderId -> toOutboxEvent(OrderEvent.ORDER_STATUS_CHANGED,
+                        new OrderEvent(orderId, null, fromStatus, toStatus, null)))
+                .collect(Collectors.toList());
+        outboxEventRepository.saveAll(events);
+    }
+
+    public OrderEvent readOrderEvent(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), OrderEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unreadable outbox event " + event.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private OutboxEvent toOutboxEvent(String eventType, OrderEvent payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setAggregateId(payload.orderId());
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize " + eventType + " event: " + e.getMessage());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        event.setCreatedAt(now);
+        event.setAvailableAt(now);
+        event.setAttempts(0);
+        return event;
+    }
+}
@@ -0,0 +1,97 @@
+package com.project.ecommerce.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class CartItemBatchRepository {
+    private static final String UPSERT_SQL =
+            "INSERT INTO cart_items (id, user_id, product_id, quantity, last_touched) VALUES (?, ?, ?, ?, NOW()) " +
+                    "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), last_touched = VALUES(last_touched)";
+
+    // Hibernate's pooled generator reads cart_items' next_val and hands out a window of 50 ids next to it.
+    // Skipping a further 50 on both sides of the claimed block keeps it clear of any such window.
+    private static final int GENERATOR_WINDOW = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Must run in its own transaction; returns the first id of a block of blockSize ids
+    public long allocateIds(int blockSize) {
+        Long current = jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generators WHERE name = 'cart_items' FOR UPDATE", Long.class);
+        jdbcTemplate.update("UPDATE id_generators SET next_val = ? WHERE name = 'cart_items'",
+                current + blockSize + 2 * GENERATOR_WINDOW);
+        return current + GENERATOR_WINDOW;
+    }
+
+    public void upsert(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        }
+    }
+
+    public void deleteByIds(Collection<Long> ids) {
+        deleteBy("id", ids);
+    }
+
+    public void deleteByUserIds(Collection<Long> userIds) {
+        deleteBy("user_id", userIds);
+    }
+
+    // Lines last touched before cutoff, oldest first, after the (lastTouched, id) position of the previous chunk
+    public List<StaleLine> findStaleLines(LocalDateTime cutoff, LocalDateTime afterTouched, long afterId, int limit) {
+        Timestamp after = Timestamp.valueOf(afterTouched);
+        return jdbcTemplate.query("SELECT id, user_id, last_touched FROM cart_items " +
+                        "WHERE last_touched < ? AND (last_touched > ? OR (last_touched = ? AND id > ?)) " +
+                        "ORDER BY last_touched, id LIMIT ?",
+                (rs, rowNum) -> new StaleLine(rs.getLong("id"), rs.getLong("user_id"),
+                        rs.getTimestamp("last_touched").toLocalDateTime()),
+                Timestamp.valueOf(cutoff), after, after, afterId, limit);
+    }
+
+    // Locks every line of these carts until the transaction ends, which also keeps new lines out of them,
+    // and returns when each cart was last touched
+    public Map<Long, LocalDateTime> lockLastTouched(Collection<Long> userIds) {
+        String placeholders = String.join(", ", Collections.nCopies(userIds.size(), "?"));
+        Map<Long, LocalDateTime> lastTouched = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, last_touched FROM cart_items WHERE user_id IN (" + placeholders + ") " +
+                "FOR UPDATE", rs -> {
+            LocalDateTime touched = rs.getTimestamp("last_touched").toLocalDateTime();
+            lastTouched.merge(rs.getLong("user_id"), touched, (a, b) -> a.isAfter(b) ? a : b);
+        }, userIds.toArray());
+        return lastTouched;
+    }
+
+    public int deleteForUsers(Collection<Long> userIds) {
+        String placeholders = String.join(", ", Collections.nCopies(userIds.size(), "?"));
+        return jdbcTemplate.update("DELETE FROM cart_items WHERE user_id IN (" + placeholders + ")", userIds.toArray());
+    }
+
+    // Rows from before last_touched existed count as touched now, so they get a full TTL
+    public int touchUntracked() {
+        return jdbcTemplate.update("UPDATE cart_items SET last_touched = NOW() WHERE last_touched IS NULL");
+    }
+
+    private void deleteBy(String column, Collection<Long> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>();
+        values.forEach(value -> batchArgs.add(new Object[]{value}));
+        jdbcTemplate.batchUpdate("DELETE FROM cart_items WHERE " + column + " = ?", batchArgs);
+    }
+
+    public record StaleLine(long id, long userId, LocalDateTime lastTouched) {
+    }
+}
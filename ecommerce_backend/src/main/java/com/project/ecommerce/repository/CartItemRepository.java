@@ -1,9 +1,13 @@
 package com.project.ecommerce.repository;
 
+import com.project.ecommerce.dto.CartItemDto;
 import com.project.ecommerce.model.CartItem;
 import com.project.ecommerce.model.Product;
 import com.project.ecommerce.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -12,5 +16,18 @@ import java.util.Optional;
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     List<CartItem> findByUser(User user);
     Optional<CartItem> findByUserAndProduct(User user, Product product);
+    List<CartItem> findByUserId(Long userId);
+    Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
     void deleteByUser(User user);
-}
\ No newline at end of file
+
+    @Query("SELECT ci FROM CartItem ci JOIN FETCH ci.product p LEFT JOIN FETCH p.category WHERE ci.user.id = :userId")
+    List<CartItem> findWithProductByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.project.ecommerce.dto.CartItemDto(ci.id, p.id, p.name, p.imageUrl, p.price, ci.quantity) " +
+            "FROM CartItem ci JOIN ci.product p WHERE ci.user.id = :userId ORDER BY ci.id")
+    List<CartItemDto> findDtosByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.user.id = :userId")
+    int deleteAllByUserIdInBulk(@Param("userId") Long userId);
+}
@@ -0,0 +1,22 @@
+package com.project.ecommerce.repository;
+
+import com.project.ecommerce.model.GuestCartMerge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+@Repository
+public interface GuestCartMergeRepository extends JpaRepository<GuestCartMerge, String> {
+    // 1 if this call claimed the nonce, 0 if it was already merged; a concurrent claim waits on the row lock
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO guest_cart_merges (nonce, expires_at) VALUES (:nonce, :expiresAt)",
+            nativeQuery = true)
+    int claim(@Param("nonce") String nonce, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM GuestCartMerge m WHERE m.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,145 @@
+package com.project.ecommerce.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Repository
+public class InventoryRepository {
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+    private static final String INCREMENT_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ? WHERE id = ?";
+    private static final String DECREMENT_BUCKET_SQL =
+            "UPDATE product_stock_buckets SET quantity = quantity - ? WHERE product_id = ? AND bucket = ? AND quantity >= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Applies every decrement in one JDBC batch and returns the ids of products that lacked stock.
+    // Rows are updated in id order so concurrent checkouts always lock products in the same order.
+    public List<Long> decrementStock(Map<Long, Integer> quantitiesByProductId) {
+        if (quantitiesByProductId.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> productIds = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+        new TreeMap<>(quantitiesByProductId).forEach((productId, quantity) -> {
+            productIds.add(productId);
+            batchArgs.add(new Object[]{quantity, productId, quantity});
+        });
+
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, batchArgs);
+
+        List<Long> insufficient = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                insufficient.add(productIds.get(i));
+            }
+        }
+        return insufficient;
+    }
+
+    public void incrementStock(Map<Long, Integer> quantitiesByProductId) {
+        if (quantitiesByProductId.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>();
+        new TreeMap<>(quantitiesByProductId).forEach((productId, quantity) ->
+                batchArgs.add(new Object[]{quantity, productId}));
+        jdbcTemplate.batchUpdate(INCREMENT_STOCK_SQL, batchArgs);
+    }
+
+    public void incrementStripedStock(Long productId, int quantity, int buckets) {
+        int bucket = ThreadLocalRandom.current().nextInt(buckets);
+        jdbcTemplate.update("UPDATE product_stock_buckets SET quantity = quantity + ? WHERE product_id = ? AND bucket = ?",
+                quantity, productId, bucket);
+    }
+
+    // Takes the whole quantity from one bucket, probing from a random start so concurrent buyers
+    // spread over different rows. Only when no single bucket suffices are the buckets drained together.
+    public boolean decrementStripedStock(Long productId, int quantity, int buckets) {
+        int start = ThreadLocalRandom.current().nextInt(buckets);
+        for (int i = 0; i < buckets; i++) {
+            int bucket = (start + i) % buckets;
+            if (jdbcTemplate.update(DECREMENT_BUCKET_SQL, quantity, productId, bucket, quantity) == 1) {
+                return true;
+            }
+        }
+        return drainBuckets(productId, quantity);
+    }
+
+    public int getStripedStock(Long productId) {
+        Integer total = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0) FROM product_stock_buckets WHERE product_id = ?",
+                Integer.class, productId);
+        return total != null ? total : 0;
+    }
+
+    public int lockStock(Long productId) {
+        Integer stock = jdbcTemplate.queryForObject(
+                "SELECT stock_quantity FROM products WHERE id = ? FOR UPDATE", Integer.class, productId);
+        return stock != null ? stock : 0;
+    }
+
+    // Deletes the product's buckets and returns the stock they held
+    public int removeBuckets(Long productId) {
+        Integer total = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0) FROM product_stock_buckets WHERE product_id = ? FOR UPDATE",
+                Integer.class, productId);
+        jdbcTemplate.update("DELETE FROM product_stock_buckets WHERE product_id = ?", productId);
+        return total != null ? total : 0;
+    }
+
+    public void removeBucketsForCategory(Long categoryId) {
+        jdbcTemplate.update("DELETE FROM product_stock_buckets WHERE product_id IN " +
+                "(SELECT id FROM products WHERE category_id = ?)", categoryId);
+    }
+
+    public void createBuckets(Long productId, int stock, int buckets) {
+        List<Object[]> batchArgs = new ArrayList<>();
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int quantity = stock / buckets + (bucket < stock % buckets ? 1 : 0);
+            batchArgs.add(new Object[]{productId, bucket, quantity});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO product_stock_buckets (product_id, bucket, quantity) VALUES (?, ?, ?)", batchArgs);
+    }
+
+    public void setStock(Long productId, int stock, Integer buckets) {
+        jdbcTemplate.update("UPDATE products SET stock_quantity = ?, stock_buckets = ? WHERE id = ?",
+                stock, buckets, productId);
+    }
+
+    private boolean drainBuckets(Long productId, int quantity) {
+        List<int[]> buckets = jdbcTemplate.query(
+                "SELECT bucket, quantity FROM product_stock_buckets WHERE product_id = ? AND quantity > 0 " +
+                        "ORDER BY bucket FOR UPDATE",
+                (rs, rowNum) -> new int[]{rs.getInt("bucket"), rs.getInt("quantity")},
+                productId);
+
+        int available = buckets.stream().mapToInt(bucket -> bucket[1]).sum();
+        if (available < quantity) {
+            return false;
+        }
+
+        int remaining = quantity;
+        for (int[] bucket : buckets) {
+            int taken = Math.min(remaining, bucket[1]);
+            jdbcTemplate.update("UPDATE product_stock_buckets SET quantity = quantity - ? WHERE product_id = ? AND bucket = ?",
+                    taken, productId, bucket[0]);
+            remaining -= taken;
+            if (remaining == 0) {
+                break;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.project.ecommerce.repository;
+
+import com.project.ecommerce.model.OrderNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderNotificationRepository extends JpaRepository<OrderNotification, Long> {
+    // 1 if the notification was written, 0 if this event had already been delivered
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO order_notifications (event_id, user_id, order_id, message, created_at) " +
+            "VALUES (:eventId, :userId, :orderId, :message, :createdAt)", nativeQuery = true)
+    int record(@Param("eventId") Long eventId,
+               @Param("userId") Long userId,
+               @Param("orderId") Long orderId,
+               @Param("message") String message,
+               @Param("createdAt") LocalDateTime createdAt);
+
+    @Query("SELECT n FROM OrderNotification n WHERE n.userId = :userId ORDER BY n.createdAt DESC, n.eventId DESC")
+    List<OrderNotification> findPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT n FROM OrderNotification n WHERE n.userId = :userId " +
+            "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.eventId < :eventId)) " +
+            "ORDER BY n.createdAt DESC, n.eventId DESC")
+    List<OrderNotification> findPageByUserIdBefore(@Param("userId") Long userId,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("eventId") Long eventId,
+                                                   Pageable pageable);
+}
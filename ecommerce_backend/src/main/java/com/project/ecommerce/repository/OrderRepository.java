@@ -2,12 +2,57 @@ package com.project.ecommerce.repository;
 
 import com.project.ecommerce.model.Order;
 import com.project.ecommerce.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
     List<Order> findByUser(User user);
     List<Order> findByUserOrderByOrderDateDesc(User user);
+    List<Order> findByUserIdOrderByOrderDateDesc(Long userId);
+
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId " +
+            "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)) " +
+            "ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findPageByUserIdBefore(@Param("userId") Long userId,
+                                       @Param("orderDate") LocalDateTime orderDate,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    @Query("SELECT DISTINCT o FROM Order o JOIN FETCH o.items i JOIN FETCH i.product p LEFT JOIN FETCH p.category " +
+            "WHERE o.id IN :ids AND o.status = :status")
+    List<Order> findWithItemsByIdInAndStatus(@Param("ids") Collection<Long> ids,
+                                             @Param("status") Order.OrderStatus status);
+
+    @Query("SELECT o.user.id FROM Order o WHERE o.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status ORDER BY o.id")
+    List<Long> findIdsByStatus(@Param("status") Order.OrderStatus status);
+
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.id > :afterId ORDER BY o.id")
+    List<Long> findIdsByStatusAfter(@Param("status") Order.OrderStatus status,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+
+    @Query(value = "SELECT id FROM orders WHERE id IN (:ids) AND status = :status FOR UPDATE", nativeQuery = true)
+    List<Long> lockIdsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :toStatus WHERE o.id IN :ids AND o.status = :fromStatus")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("fromStatus") Order.OrderStatus fromStatus,
+                     @Param("toStatus") Order.OrderStatus toStatus);
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.project.ecommerce.repository;
+
+import com.project.ecommerce.model.Order;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class OrderSpecifications {
+    private OrderSpecifications() {
+    }
+
+    // Any filter may be null; a non-null cursor restricts to orders after it in (orderDate DESC, id DESC) order
+    public static Specification<Order> search(Order.OrderStatus status, LocalDateTime from, LocalDateTime to,
+                                              Long userId, LocalDateTime cursorDate, Long cursorId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("orderDate"), from));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThan(root.get("orderDate"), to));
+            }
+            if (userId != null) {
+                predicates.add(cb.equal(root.get("user").get("id"), userId));
+            }
+            if (cursorDate != null && cursorId != null) {
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("orderDate"), cursorDate),
+                        cb.and(cb.equal(root.get("orderDate"), cursorDate), cb.lessThan(root.get("id"), cursorId))));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
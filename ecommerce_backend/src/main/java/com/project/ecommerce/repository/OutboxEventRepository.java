@@ -0,0 +1,31 @@
+package com.project.ecommerce.repository;
+
+import com.project.ecommerce.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    // SKIP LOCKED lets several application instances drain the outbox without waiting on each other
+    @Query(value = "SELECT * FROM outbox_events WHERE available_at <= :now ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OutboxEvent> findAvailableForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.availableAt = :availableAt WHERE e.id IN :ids")
+    void lease(@Param("ids") Collection<Long> ids, @Param("availableAt") LocalDateTime availableAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.availableAt = :availableAt, e.lastError = :error " +
+            "WHERE e.id = :id")
+    void markFailed(@Param("id") Long id, @Param("availableAt") LocalDateTime availableAt, @Param("error") String error);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e")
+    LocalDateTime findOldestCreatedAt();
+}
@@ -0,0 +1,51 @@
+package com.project.ecommerce.repository;
+
+import com.project.ecommerce.dto.ProductImportRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class ProductBulkRepository {
+    // Striped products keep their bucket stock; only unstriped rows take the imported quantity
+    private static final String UPSERT_SQL =
+            "INSERT INTO products (sku, name, description, price, image_url, stock_quantity, category_id) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE name = VALUES(name), " +
+                    "description = VALUES(description), price = VALUES(price), image_url = VALUES(image_url), " +
+                    "category_id = VALUES(category_id), " +
+                    "stock_quantity = IF(stock_buckets IS NULL, VALUES(stock_quantity), stock_quantity)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // With rewriteBatchedStatements the whole list goes to MySQL as one multi-row INSERT
+    public void upsert(List<ProductImportRow> rows) {
+        List<Object[]> batchArgs = new ArrayList<>();
+        for (ProductImportRow row : rows) {
+            batchArgs.add(new Object[]{row.getSku(), row.getName(), row.getDescription(), row.getPrice(),
+                    row.getImageUrl(), row.getStockQuantity(), row.getCategoryId()});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+    }
+
+    public Map<String, Long> findIdsBySku(Collection<String> skus) {
+        Map<String, Long> ids = new HashMap<>();
+        if (skus.isEmpty()) {
+            return ids;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(skus.size(), "?"));
+        jdbcTemplate.query("SELECT id, sku FROM products WHERE sku IN (" + placeholders + ")",
+                rs -> {
+                    ids.put(rs.getString("sku"), rs.getLong("id"));
+                },
+                skus.toArray());
+        return ids;
+    }
+}
@@ -1,16 +1,53 @@
 package com.project.ecommerce.repository;
 
+import com.project.ecommerce.dto.ProductDto;
+import com.project.ecommerce.dto.ProductExportRow;
 import com.project.ecommerce.model.Category;
 import com.project.ecommerce.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    String STOCK_TOTAL = "CASE WHEN p.stockBuckets IS NULL THEN p.stockQuantity ELSE CAST(p.stockQuantity + " +
+            "COALESCE((SELECT SUM(b.quantity) FROM ProductStockBucket b WHERE b.product = p), 0) AS Integer) END";
+
+    String PRODUCT_DTO_SELECT = "SELECT new com.project.ecommerce.dto.ProductDto(p.id, p.name, p.description, " +
+            "p.price, p.imageUrl, " + STOCK_TOTAL + ", c.id, c.name) FROM Product p LEFT JOIN p.category c ";
+
     List<Product> findByCategory(Category category);
 
-    @Query("SELECT p FROM Product p WHERE p.name LIKE %?1% OR p.description LIKE %?1%")
-    List<Product> search(String keyword);
-}
\ No newline at end of file
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.id = :id")
+    Optional<ProductDto> findDtoById(@Param("id") Long id);
+
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.id IN :ids")
+    List<ProductDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(PRODUCT_DTO_SELECT + "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductDto> findDtoPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(PRODUCT_DTO_SELECT + "WHERE c.id = :categoryId AND p.id > :afterId ORDER BY p.id")
+    List<ProductDto> findDtoPageByCategoryAfter(@Param("categoryId") Long categoryId,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
+
+    // A fetch size of Integer.MIN_VALUE makes MySQL Connector/J stream rows one at a time over a forward-only
+    // result set instead of materialising them; the stream must be consumed and closed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT new com.project.ecommerce.dto.ProductExportRow(p.id, p.sku, p.name, p.description, p.price, " +
+            "p.imageUrl, " + STOCK_TOTAL + ", c.id, c.name) FROM Product p LEFT JOIN p.category c ORDER BY p.id")
+    Stream<ProductExportRow> streamForExport();
+
+    @Query("SELECT p.id FROM Product p WHERE p.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+}
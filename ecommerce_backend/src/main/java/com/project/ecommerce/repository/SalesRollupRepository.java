@@ -0,0 +1,112 @@
+package com.project.ecommerce.repository;
+
+import com.project.ecommerce.dto.SalesReportRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Repository
+public class SalesRollupRepository {
+    private static final String ON_DUPLICATE_ADD =
+            " ON DUPLICATE KEY UPDATE units_sold = units_sold + VALUES(units_sold), revenue = revenue + VALUES(revenue)";
+    private static final String UPSERT_SQL =
+            "INSERT INTO sales_rollups (sales_date, product_id, category_id, slot, units_sold, revenue) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)" + ON_DUPLICATE_ADD;
+    // Aggregates the items of the given orders; the IN list placeholder is expanded per call
+    private static final String UPSERT_FROM_ORDERS_SQL =
+            "INSERT INTO sales_rollups (sales_date, product_id, category_id, slot, units_sold, revenue) " +
+                    "SELECT DATE(o.order_date), oi.product_id, p.category_id, MOD(o.id, ?), " +
+                    "? * SUM(oi.quantity), ? * SUM(oi.price * oi.quantity) " +
+                    "FROM orders o JOIN order_items oi ON oi.order_id = o.id JOIN products p ON p.id = oi.product_id " +
+                    "WHERE %s GROUP BY DATE(o.order_date), oi.product_id, p.category_id, MOD(o.id, ?)" + ON_DUPLICATE_ADD;
+    private static final String UNCOUNTED_STATUSES = "('ACCEPTED', 'FAILED', 'CANCELLED')";
+
+    private static final RowMapper<SalesReportRow> REPORT_ROW = (rs, rowNum) -> {
+        Date salesDate = rs.getDate("sales_date");
+        return new SalesReportRow(
+                salesDate != null ? salesDate.toLocalDate() : null,
+                rs.getObject("category_id", Long.class),
+                rs.getObject("product_id", Long.class),
+                rs.getLong("units_sold"),
+                rs.getBigDecimal("revenue"));
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // One batched upsert per product, in product id order so concurrent writers lock rows in the same order
+    public void add(LocalDate salesDate, int slot, Map<Long, Long> categoryByProductId,
+                    Map<Long, Integer> unitsByProductId, Map<Long, BigDecimal> revenueByProductId, int sign) {
+        if (unitsByProductId.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>();
+        new TreeMap<>(unitsByProductId).forEach((productId, units) -> batchArgs.add(new Object[]{
+                salesDate, productId, categoryByProductId.get(productId), slot,
+                (long) sign * units, revenueByProductId.get(productId).multiply(BigDecimal.valueOf(sign))}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+    }
+
+    // Set-based variant for bulk transitions: the deltas are computed from order_items inside the database
+    public void addForOrders(Collection<Long> orderIds, int slots, int sign) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(orderIds.size(), "?"));
+        List<Object> args = new ArrayList<>();
+        args.add(slots);
+        args.add(sign);
+        args.add(sign);
+        args.addAll(orderIds);
+        args.add(slots);
+        jdbcTemplate.update(String.format(UPSERT_FROM_ORDERS_SQL, "o.id IN (" + placeholders + ")"), args.toArray());
+    }
+
+    public boolean isEmpty() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM sales_rollups LIMIT 1) r",
+                Integer.class);
+        return rows == null || rows == 0;
+    }
+
+    // Seeds the rollups from order history; only meant for an empty table
+    public void backfill(int slots) {
+        jdbcTemplate.update(String.format(UPSERT_FROM_ORDERS_SQL, "o.status NOT IN " + UNCOUNTED_STATUSES),
+                slots, 1, 1, slots);
+    }
+
+    public List<SalesReportRow> sumByDay(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT sales_date, NULL AS category_id, NULL AS product_id, " +
+                        "SUM(units_sold) AS units_sold, SUM(revenue) AS revenue FROM sales_rollups " +
+                        "WHERE sales_date BETWEEN ? AND ? GROUP BY sales_date ORDER BY sales_date",
+                REPORT_ROW, from, to);
+    }
+
+    public List<SalesReportRow> sumByCategory(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT NULL AS sales_date, category_id, NULL AS product_id, " +
+                        "SUM(units_sold) AS units_sold, SUM(revenue) AS revenue FROM sales_rollups " +
+                        "WHERE sales_date BETWEEN ? AND ? GROUP BY category_id ORDER BY revenue DESC",
+                REPORT_ROW, from, to);
+    }
+
+    public List<SalesReportRow> sumByProduct(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT NULL AS sales_date, MAX(category_id) AS category_id, product_id, " +
+                        "SUM(units_sold) AS units_sold, SUM(revenue) AS revenue FROM sales_rollups " +
+                        "WHERE sales_date BETWEEN ? AND ? GROUP BY product_id ORDER BY revenue DESC",
+                REPORT_ROW, from, to);
+    }
+}
@@ -0,0 +1,389 @@
+package com.project.ecommerce.search;
+
+import com.project.ecommerce.dto.AutocompleteSuggestion;
+import com.project.ecommerce.dto.ProductDto;
+import com.project.ecommerce.dto.SalesReportRow;
+import com.project.ecommerce.model.Category;
+import com.project.ecommerce.repository.CategoryRepository;
+import com.project.ecommerce.repository.ProductRepository;
+import com.project.ecommerce.repository.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Typeahead over product and category names. Every word of a name starts a key in a character trie, and each
+// trie node keeps the top suggestions of its subtree, so a lookup is a walk down the prefix plus a copy.
+// Popularity is units sold over the last autocomplete.popularity-days, read from the sales rollups.
+@Component
+public class AutocompleteIndex {
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteIndex.class);
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Keys are cut off here; longer prefixes are matched by scanning the (small) subtree
+    private static final int MAX_KEY_LENGTH = 24;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+
+    private static final Comparator<Suggestion> RANKING = Comparator.comparingLong(Suggestion::weight).reversed()
+            .thenComparingInt(suggestion -> suggestion.text().length())
+            .thenComparing(Suggestion::text);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Value("${autocomplete.max-results:10}")
+    private int maxResults;
+
+    @Value("${autocomplete.popularity-days:30}")
+    private int popularityDays;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root = new Node();
+    private Map<String, Suggestion> suggestionsByKey = new HashMap<>();
+    private Map<Long, Long> productWeights = new HashMap<>();
+    private Map<Long, Long> categoryWeights = new HashMap<>();
+
+    // Writes that land while a rebuild is reading the catalog are replayed onto the new trie
+    private List<Runnable> writesDuringRebuild;
+
+    // Weights only change with sales, so a periodic rebuild is enough to keep them fresh
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${autocomplete.rebuild-interval-ms:3600000}",
+            initialDelayString = "${autocomplete.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Node newRoot = new Node();
+        Map<String, Suggestion> newSuggestions = new HashMap<>();
+        Map<Long, Long> newProductWeights = new HashMap<>();
+        Map<Long, Long> newCategoryWeights = new HashMap<>();
+        boolean built = false;
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate from = today.minusDays(popularityDays);
+            for (SalesReportRow row : salesRollupRepository.sumByProduct(from, today)) {
+                newProductWeights.put(row.getProductId(), row.getUnitsSold());
+            }
+            for (SalesReportRow row : salesRollupRepository.sumByCategory(from, today)) {
+                if (row.getCategoryId() != null) {
+                    newCategoryWeights.put(row.getCategoryId(), row.getUnitsSold());
+                }
+            }
+
+            for (Category category : categoryRepository.findAll()) {
+                Suggestion suggestion = new Suggestion(AutocompleteSuggestion.CATEGORY, category.getId(),
+                        category.getName(), newCategoryWeights.getOrDefault(category.getId(), 0L));
+                newSuggestions.put(suggestion.key(), suggestion);
+                addTerminals(newRoot, suggestion);
+            }
+
+            long afterId = 0L;
+            List<ProductDto> batch;
+            do {
+                batch = productRepository.findDtoPageAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (ProductDto product : batch) {
+                    Suggestion suggestion = new Suggestion(AutocompleteSuggestion.PRODUCT, product.getId(),
+                            product.getName(), newProductWeights.getOrDefault(product.getId(), 0L));
+                    newSuggestions.put(suggestion.key(), suggestion);
+                    addTerminals(newRoot, suggestion);
+                    afterId = product.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            computeTops(newRoot);
+            built = true;
+        } finally {
+            // A failed rebuild keeps the current trie and must stop recording writes either way
+            lock.writeLock().lock();
+            try {
+                List<Runnable> replay = writesDuringRebuild;
+                writesDuringRebuild = null;
+                if (built) {
+                    root = newRoot;
+                    suggestionsByKey = newSuggestions;
+                    productWeights = newProductWeights;
+                    categoryWeights = newCategoryWeights;
+                    replay.forEach(Runnable::run);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        logger.info("Autocomplete index built with {} suggestions", newSuggestions.size());
+    }
+
+    public void indexProduct(Long productId, String name) {
+        write(() -> put(new Suggestion(AutocompleteSuggestion.PRODUCT, productId, name,
+                productWeights.getOrDefault(productId, 0L))));
+    }
+
+    public void removeProduct(Long productId) {
+        write(() -> remove(Suggestion.key(AutocompleteSuggestion.PRODUCT, productId)));
+    }
+
+    public void indexCategory(Long categoryId, String name) {
+        write(() -> put(new Suggestion(AutocompleteSuggestion.CATEGORY, categoryId, name,
+                categoryWeights.getOrDefault(categoryId, 0L))));
+    }
+
+    public void removeCategory(Long categoryId) {
+        write(() -> remove(Suggestion.key(AutocompleteSuggestion.CATEGORY, categoryId)));
+    }
+
+    public List<AutocompleteSuggestion> suggest(String prefix, Integer limit) {
+        String normalized = normalize(prefix);
+        int resultLimit = limit == null || limit <= 0 ? maxResults : Math.min(limit, maxResults);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        List<Suggestion> suggestions;
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            String path = normalized.length() > MAX_KEY_LENGTH ? normalized.substring(0, MAX_KEY_LENGTH) : normalized;
+            for (int i = 0; i < path.length() && node != null; i++) {
+                node = node.child(path.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+
+            if (normalized.length() > MAX_KEY_LENGTH) {
+                List<Suggestion> matches = new ArrayList<>();
+                collect(node, matches);
+                suggestions = matches.stream()
+                        .filter(suggestion -> keys(suggestion.text(), Integer.MAX_VALUE).stream()
+                                .anyMatch(key -> key.startsWith(normalized)))
+                        .distinct()
+                        .sorted(RANKING)
+                        .collect(Collectors.toList());
+            } else {
+                suggestions = Arrays.asList(node.top);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return suggestions.stream()
+                .limit(resultLimit)
+                .map(suggestion -> new AutocompleteSuggestion(suggestion.type(), suggestion.id(), suggestion.text()))
+                .collect(Collectors.toList());
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Suggestion suggestion) {
+        remove(suggestion.key());
+        suggestionsByKey.put(suggestion.key(), suggestion);
+        for (String key : keys(suggestion.text(), MAX_KEY_LENGTH)) {
+            List<Node> path = path(root, key, true);
+            path.get(path.size() - 1).terminals.add(suggestion);
+            refreshTops(path);
+        }
+    }
+
+    private void remove(String suggestionKey) {
+        Suggestion suggestion = suggestionsByKey.remove(suggestionKey);
+        if (suggestion == null) {
+            return;
+        }
+
+        for (String key : keys(suggestion.text(), MAX_KEY_LENGTH)) {
+            List<Node> path = path(root, key, false);
+            if (path.size() != key.length() + 1) {
+                continue;
+            }
+            path.get(path.size() - 1).terminals.remove(suggestion);
+            refreshTops(path);
+
+            // Drop nodes that no longer lead anywhere
+            for (int i = path.size() - 1; i > 0; i--) {
+                Node node = path.get(i);
+                if (!node.terminals.isEmpty() || node.labels.length > 0) {
+                    break;
+                }
+                path.get(i - 1).removeChild(key.charAt(i - 1));
+            }
+        }
+    }
+
+    private void addTerminals(Node root, Suggestion suggestion) {
+        for (String key : keys(suggestion.text(), MAX_KEY_LENGTH)) {
+            List<Node> path = path(root, key, true);
+            path.get(path.size() - 1).terminals.add(suggestion);
+        }
+    }
+
+    private List<Node> path(Node root, String key, boolean create) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                if (!create) {
+                    return path;
+                }
+                child = node.addChild(key.charAt(i));
+            }
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private void refreshTops(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            computeTop(path.get(i));
+        }
+    }
+
+    private void computeTops(Node node) {
+        for (Node child : node.children) {
+            computeTops(child);
+        }
+        computeTop(node);
+    }
+
+    // A node's top list is the best of its own terminals and its children's top lists
+    private void computeTop(Node node) {
+        Set<Suggestion> candidates = new LinkedHashSet<>(node.terminals);
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        node.top = candidates.stream()
+                .sorted(RANKING)
+                .limit(maxResults)
+                .toArray(Suggestion[]::new);
+    }
+
+    private void collect(Node node, List<Suggestion> suggestions) {
+        suggestions.addAll(node.terminals);
+        for (Node child : node.children) {
+            collect(child, suggestions);
+        }
+    }
+
+    // "Acme Red Shoe" is reachable as "acme red shoe", "red shoe" and "shoe"
+    private static Set<String> keys(String text, int maxLength) {
+        String normalized = normalize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        int start = 0;
+        while (start < normalized.length()) {
+            String key = normalized.substring(start);
+            keys.add(key.length() > maxLength ? key.substring(0, maxLength) : key);
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return SEPARATOR.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // Children are kept in parallel sorted arrays, which is far smaller than a map per node
+    private static final class Node {
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private final List<Suggestion> terminals = new ArrayList<>(1);
+        private Suggestion[] top = NO_SUGGESTIONS;
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node addChild(char label) {
+            int index = -Arrays.binarySearch(labels, label) - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index, newLabels, index + 1, labels.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            Node child = new Node();
+            newLabels[index] = label;
+            newChildren[index] = child;
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+    }
+
+    private record Suggestion(String type, Long id, String text, long weight) {
+        private String key() {
+            return key(type, id);
+        }
+
+        private static String key(String type, Long id) {
+            return type + ":" + id;
+        }
+    }
+}
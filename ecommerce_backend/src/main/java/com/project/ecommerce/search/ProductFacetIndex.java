@@ -0,0 +1,391 @@
+package com.project.ecommerce.search;
+
+import com.project.ecommerce.dto.ProductDto;
+import com.project.ecommerce.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// Facet membership over dense product ordinals: bitsets for live and in-stock products and for each of the few
+// price bands, and a sorted ordinal array per category, since a category holds a small slice of the catalog and
+// a bitset per category would cost a bit per product each. A filter is an AND of OR-ed facet values.
+// Ordinals are never reused and are handed out in id order, so walking set bits visits products by id.
+@Component
+public class ProductFacetIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Upper limits of the price bands; anything at or above the last limit falls in a final open band
+    @Value("${catalog.facets.price-bands:25,50,100,250,500}")
+    private String priceBands;
+
+    private List<BigDecimal> priceBandLimits;
+    private List<String> priceBandLabels;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Products whose stock changed outside ProductService (checkout, import); re-read on the next filter
+    private final Set<Long> stale = ConcurrentHashMap.newKeySet();
+
+    private State state = new State();
+
+    // Non-null while a rebuild is reading the catalog; changes made meanwhile are replayed onto the new state
+    private List<Runnable> writesDuringRebuild;
+
+    @PostConstruct
+    public void init() {
+        priceBandLimits = Arrays.stream(priceBands.split(","))
+                .map(limit -> new BigDecimal(limit.trim()))
+                .sorted()
+                .collect(Collectors.toList());
+        priceBandLabels = new ArrayList<>();
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal limit : priceBandLimits) {
+            priceBandLabels.add(lower.toPlainString() + "-" + limit.toPlainString());
+            lower = limit;
+        }
+        priceBandLabels.add(lower.toPlainString() + "+");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        State newState = new State();
+        boolean built = false;
+        try {
+            long afterId = 0L;
+            List<ProductDto> batch;
+            do {
+                batch = productRepository.findDtoPageAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (ProductDto product : batch) {
+                    add(newState, product);
+                    afterId = product.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            built = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<Runnable> replay = writesDuringRebuild;
+                writesDuringRebuild = null;
+                if (built) {
+                    state = newState;
+                    replay.forEach(Runnable::run);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        logger.info("Product facet index built with {} products and {} categories",
+                newState.live.cardinality(), newState.byCategory.size());
+    }
+
+    public void index(ProductDto product) {
+        write(() -> {
+            clear(state, product.getId());
+            add(state, product);
+        });
+    }
+
+    public void remove(Long productId) {
+        write(() -> clear(state, productId));
+    }
+
+    public void markStale(Collection<Long> productIds) {
+        stale.addAll(productIds);
+    }
+
+    public List<String> getPriceBands() {
+        return priceBandLabels;
+    }
+
+    // rankedIds restricts and orders the result (keyword search); start is a position in it and next the position
+    // to resume from. Without rankedIds results follow product id order and resume after afterProductId.
+    public FacetResult filter(List<Long> rankedIds, int start, Long afterProductId, int limit,
+                              Collection<Long> categoryIds, Collection<String> priceBands, Boolean inStock) {
+        refreshStale();
+
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) state.live.clone();
+            if (rankedIds != null) {
+                BitSet ranked = new BitSet();
+                for (Long productId : rankedIds) {
+                    Integer ordinal = state.ordinals.get(productId);
+                    if (ordinal != null) {
+                        ranked.set(ordinal);
+                    }
+                }
+                base.and(ranked);
+            }
+
+            BitSet categoryFilter = categoryIds == null || categoryIds.isEmpty()
+                    ? null
+                    : categoryUnion(categoryIds);
+            BitSet priceFilter = priceBands == null || priceBands.isEmpty()
+                    ? null
+                    : union(priceBands, priceBandBitsets());
+            BitSet stockFilter = null;
+            if (inStock != null) {
+                stockFilter = (BitSet) state.inStock.clone();
+                if (!inStock) {
+                    stockFilter.flip(0, Math.max(state.productIds.size(), 1));
+                }
+            }
+
+            BitSet matches = intersect(base, categoryFilter, priceFilter, stockFilter);
+
+            // Each facet is counted with every other active filter applied but not its own,
+            // so shoppers can see what widening that facet would give them
+            Map<Long, Integer> categoryCounts = new HashMap<>();
+            BitSet withoutCategory = intersect(base, null, priceFilter, stockFilter);
+            state.byCategory.forEach((categoryId, products) -> {
+                int count = products.countIn(withoutCategory);
+                if (count > 0) {
+                    categoryCounts.put(categoryId, count);
+                }
+            });
+
+            Map<String, Integer> priceBandCounts = new LinkedHashMap<>();
+            BitSet withoutPrice = intersect(base, categoryFilter, null, stockFilter);
+            for (int band = 0; band < priceBandLabels.size(); band++) {
+                priceBandCounts.put(priceBandLabels.get(band), cardinality(withoutPrice, state.byPriceBand.get(band)));
+            }
+
+            BitSet withoutStock = intersect(base, categoryFilter, priceFilter, null);
+            int inStockCount = cardinality(withoutStock, state.inStock);
+            int outOfStockCount = withoutStock.cardinality() - inStockCount;
+
+            List<Long> productIds = new ArrayList<>();
+            int next = start;
+            boolean hasMore = false;
+            if (rankedIds != null) {
+                for (int i = start; i < rankedIds.size(); i++) {
+                    Integer ordinal = state.ordinals.get(rankedIds.get(i));
+                    if (ordinal == null || !matches.get(ordinal)) {
+                        continue;
+                    }
+                    if (productIds.size() == limit) {
+                        hasMore = true;
+                        break;
+                    }
+                    productIds.add(rankedIds.get(i));
+                    next = i + 1;
+                }
+            } else {
+                int first = matches.nextSetBit(ordinalAfter(afterProductId));
+                for (int ordinal = first; ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                    if (productIds.size() == limit) {
+                        hasMore = true;
+                        break;
+                    }
+                    productIds.add(state.productIds.get(ordinal));
+                }
+            }
+
+            return new FacetResult(productIds, next, hasMore, matches.cardinality(),
+                    categoryCounts, priceBandCounts, inStockCount, outOfStockCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void refreshStale() {
+        if (stale.isEmpty()) {
+            return;
+        }
+
+        List<Long> productIds = new ArrayList<>(stale);
+        stale.removeAll(productIds);
+        Map<Long, ProductDto> products = new HashMap<>();
+        productRepository.findDtosByIdIn(productIds).forEach(product -> products.put(product.getId(), product));
+
+        write(() -> {
+            for (Long productId : productIds) {
+                clear(state, productId);
+                ProductDto product = products.get(productId);
+                if (product != null) {
+                    add(state, product);
+                }
+            }
+        });
+    }
+
+    // Changes read the current state when run, so a replay after a rebuild applies them to the new one
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A cursor's product may have been dropped by a rebuild since; ordinals follow id order, so seek past it
+    private int ordinalAfter(Long productId) {
+        if (productId == null) {
+            return 0;
+        }
+        Integer ordinal = state.ordinals.get(productId);
+        if (ordinal != null) {
+            return ordinal + 1;
+        }
+        int low = 0;
+        int high = state.productIds.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (state.productIds.get(mid) <= productId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void add(State state, ProductDto product) {
+        int ordinal = state.ordinals.computeIfAbsent(product.getId(), productId -> {
+            state.productIds.add(productId);
+            state.categoryIds.add(null);
+            return state.productIds.size() - 1;
+        });
+
+        state.live.set(ordinal);
+        if (product.getCategoryId() != null) {
+            state.byCategory.computeIfAbsent(product.getCategoryId(), key -> new SortedIntSet()).add(ordinal);
+            state.categoryIds.set(ordinal, product.getCategoryId());
+        }
+        if (product.getPrice() != null) {
+            state.byPriceBand.computeIfAbsent(priceBand(product.getPrice()), key -> new BitSet()).set(ordinal);
+        }
+        if (product.getStockQuantity() != null && product.getStockQuantity() > 0) {
+            state.inStock.set(ordinal);
+        }
+    }
+
+    // Keeps the ordinal so a re-indexed product stays in place
+    private void clear(State state, Long productId) {
+        Integer ordinal = state.ordinals.get(productId);
+        if (ordinal == null) {
+            return;
+        }
+
+        state.live.clear(ordinal);
+        state.inStock.clear(ordinal);
+        Long categoryId = state.categoryIds.set(ordinal, null);
+        if (categoryId != null) {
+            SortedIntSet products = state.byCategory.get(categoryId);
+            products.remove(ordinal);
+            if (products.isEmpty()) {
+                state.byCategory.remove(categoryId);
+            }
+        }
+        state.byPriceBand.values().forEach(products -> products.clear(ordinal));
+    }
+
+    private int priceBand(BigDecimal price) {
+        for (int band = 0; band < priceBandLimits.size(); band++) {
+            if (price.compareTo(priceBandLimits.get(band)) < 0) {
+                return band;
+            }
+        }
+        return priceBandLimits.size();
+    }
+
+    private Map<String, BitSet> priceBandBitsets() {
+        Map<String, BitSet> bitsets = new HashMap<>();
+        state.byPriceBand.forEach((band, products) -> bitsets.put(priceBandLabels.get(band), products));
+        return bitsets;
+    }
+
+    private BitSet categoryUnion(Collection<Long> categoryIds) {
+        BitSet union = new BitSet();
+        for (Long categoryId : categoryIds) {
+            SortedIntSet products = state.byCategory.get(categoryId);
+            if (products != null) {
+                products.orInto(union);
+            }
+        }
+        return union;
+    }
+
+    private static <K> BitSet union(Collection<K> keys, Map<K, BitSet> bitsets) {
+        BitSet union = new BitSet();
+        for (K key : keys) {
+            BitSet products = bitsets.get(key);
+            if (products != null) {
+                union.or(products);
+            }
+        }
+        return union;
+    }
+
+    private static BitSet intersect(BitSet base, BitSet... filters) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static int cardinality(BitSet left, BitSet right) {
+        if (right == null) {
+            return 0;
+        }
+        BitSet both = (BitSet) left.clone();
+        both.and(right);
+        return both.cardinality();
+    }
+
+    private static class State {
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final List<Long> productIds = new ArrayList<>();
+        // Category of each ordinal, so clearing a product touches only its own category
+        private final List<Long> categoryIds = new ArrayList<>();
+        private final BitSet live = new BitSet();
+        private final BitSet inStock = new BitSet();
+        private final Map<Long, SortedIntSet> byCategory = new HashMap<>();
+        private final Map<Integer, BitSet> byPriceBand = new HashMap<>();
+    }
+
+    public record FacetResult(List<Long> productIds, int next, boolean hasMore, int total,
+                              Map<Long, Integer> categoryCounts, Map<String, Integer> priceBandCounts,
+                              int inStockCount, int outOfStockCount) {
+    }
+}
@@ -0,0 +1,187 @@
+package com.project.ecommerce.search;
+
+import com.project.ecommerce.dto.ProductDto;
+import com.project.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Component
+public class ProductSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    public static final Comparator<SearchHit> RANKING = Comparator.comparingInt(SearchHit::score).reversed()
+            .thenComparing(SearchHit::productId);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (product id -> weighted term frequency)
+    private Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private Map<Long, Set<String>> termsByProduct = new HashMap<>();
+
+    // Writes that land while a rebuild is reading the catalog are replayed onto the new index
+    private List<Runnable> writesDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<String, Map<Long, Integer>> newPostings = new HashMap<>();
+        Map<Long, Set<String>> newTermsByProduct = new HashMap<>();
+        boolean built = false;
+        try {
+            long afterId = 0L;
+            List<ProductDto> batch;
+            do {
+                batch = productRepository.findDtoPageAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (ProductDto product : batch) {
+                    addDocument(newPostings, newTermsByProduct, product.getId(), product.getName(),
+                            product.getDescription());
+                    afterId = product.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            built = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<Runnable> replay = writesDuringRebuild;
+                writesDuringRebuild = null;
+                if (built) {
+                    postings = newPostings;
+                    termsByProduct = newTermsByProduct;
+                    replay.forEach(Runnable::run);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        logger.info("Product search index built with {} products and {} terms",
+                newTermsByProduct.size(), newPostings.size());
+    }
+
+    public void index(Long productId, String name, String description) {
+        write(() -> {
+            removeDocument(productId);
+            addDocument(postings, termsByProduct, productId, name, description);
+        });
+    }
+
+    public void remove(Long productId) {
+        write(() -> removeDocument(productId));
+    }
+
+    public List<SearchHit> search(String query) {
+        List<String> terms = tokenize(query).stream().distinct().collect(Collectors.toList());
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> scores;
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Integer> products = postings.get(term);
+                if (products == null) {
+                    return List.of();
+                }
+                termPostings.add(products);
+            }
+
+            // Intersect starting from the rarest term so the candidate set stays small
+            termPostings.sort(Comparator.comparingInt(Map::size));
+            scores = new HashMap<>(termPostings.get(0));
+            for (Map<Long, Integer> products : termPostings.subList(1, termPostings.size())) {
+                scores.keySet().retainAll(products.keySet());
+                scores.replaceAll((productId, score) -> score + products.get(productId));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return scores.entrySet().stream()
+                .map(entry -> new SearchHit(entry.getKey(), entry.getValue()))
+                .sorted(RANKING)
+                .collect(Collectors.toList());
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addDocument(Map<String, Map<Long, Integer>> postings, Map<Long, Set<String>> termsByProduct,
+                             Long productId, String name, String description) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(name).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(productId, weight));
+        termsByProduct.put(productId, weights.keySet());
+    }
+
+    private void removeDocument(Long productId) {
+        Set<String> terms = termsByProduct.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> products = postings.get(term);
+            if (products != null) {
+                products.remove(productId);
+                if (products.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    public record SearchHit(Long productId, int score) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.project.ecommerce.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Sorted int array with set semantics. Costs four bytes per member however far apart the members are, where
+// a BitSet costs a bit for every ordinal below its highest member. Members added in increasing order append.
+final class SortedIntSet {
+    private int[] values = new int[4];
+    private int size;
+
+    boolean add(int value) {
+        int position = size > 0 && values[size - 1] < value ? -size - 1 : Arrays.binarySearch(values, 0, size, value);
+        if (position >= 0) {
+            return false;
+        }
+        int insertAt = -position - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        values[insertAt] = value;
+        size++;
+        return true;
+    }
+
+    boolean remove(int value) {
+        int position = Arrays.binarySearch(values, 0, size, value);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(values, position + 1, values, position, size - position - 1);
+        size--;
+        if (size < values.length / 4) {
+            values = Arrays.copyOf(values, Math.max(size * 2, 4));
+        }
+        return true;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void orInto(BitSet bits) {
+        for (int i = 0; i < size; i++) {
+            bits.set(values[i]);
+        }
+    }
+
+    int countIn(BitSet bits) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (bits.get(values[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
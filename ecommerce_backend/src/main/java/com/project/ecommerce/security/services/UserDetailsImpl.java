@@ -44,6 +44,14 @@ public class UserDetailsImpl implements UserDetails {
                 authorities);
     }
 
+    public static UserDetailsImpl fromClaims(Long id, String username, String email, List<String> roles) {
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        return new UserDetailsImpl(id, username, email, null, authorities);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
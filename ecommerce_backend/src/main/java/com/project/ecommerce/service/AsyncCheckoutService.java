@@ -0,0 +1,150 @@
+package com.project.ecommerce.service;
+
+import com.project.ecommerce.dto.CheckoutRequest;
+import com.project.ecommerce.dto.OrderDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class AsyncCheckoutService {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncCheckoutService.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${checkout.async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${checkout.async.workers:4}")
+    private int workerCount;
+
+    @Value("${checkout.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${checkout.async.batch-size:20}")
+    private int batchSize;
+
+    private BlockingQueue<Long> acceptedOrders;
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        acceptedOrders = new LinkedBlockingQueue<>(queueCapacity);
+        if (!enabled) {
+            return;
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "checkout-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::processAcceptedOrders);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public OrderDto checkout(CheckoutRequest checkoutRequest) {
+        // Shed load before touching the database when the workers are already saturated
+        if (acceptedOrders.remainingCapacity() == 0) {
+            throw new RuntimeException("Checkout is busy, please try again shortly");
+        }
+
+        OrderDto order = orderService.acceptCheckout(checkoutRequest);
+        if (!acceptedOrders.offer(order.getId())) {
+            // Lost the race for the last queue slot: settle this order on the request thread instead
+            completeBatch(List.of(order.getId()));
+        }
+        return order;
+    }
+
+    // Orders accepted before a restart are still ACCEPTED in the database; pick them back up
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeAcceptedOrders() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Long> orderIds = orderService.getAcceptedOrderIds();
+        List<Long> overflow = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            if (!acceptedOrders.offer(orderId)) {
+                overflow.add(orderId);
+            }
+        }
+
+        // Whatever does not fit in the queue is settled here in batches rather than left until the next restart
+        for (int start = 0; start < overflow.size(); start += batchSize) {
+            completeBatch(overflow.subList(start, Math.min(start + batchSize, overflow.size())));
+        }
+        if (!orderIds.isEmpty()) {
+            logger.info("Resumed {} accepted orders, {} of them settled on startup", orderIds.size(), overflow.size());
+        }
+    }
+
+    private void processAcceptedOrders() {
+        while (running) {
+            try {
+                Long first = acceptedOrders.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                // Settle whatever else has queued up alongside it in the same transaction
+                List<Long> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                acceptedOrders.drainTo(batch, batchSize - 1);
+                completeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void completeBatch(List<Long> orderIds) {
+        try {
+            orderService.completeAcceptedOrders(orderIds);
+        } catch (Exception e) {
+            logger.error("Checkout batch {} failed, retrying orders one by one: {}", orderIds, e.getMessage());
+            for (Long orderId : orderIds) {
+                try {
+                    orderService.completeAcceptedOrders(List.of(orderId));
+                } catch (Exception orderException) {
+                    logger.error("Checkout of order {} failed: {}", orderId, orderException.getMessage());
+                    orderService.failAcceptedOrder(orderId, "Checkout could not be completed");
+                }
+            }
+        }
+    }
+}
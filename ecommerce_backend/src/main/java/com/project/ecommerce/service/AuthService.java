@@ -1,5 +1,6 @@
 package com.project.ecommerce.service;
 
+import com.project.ecommerce.cart.GuestCartTokens;
 import com.project.ecommerce.dto.AuthRequest;
 import com.project.ecommerce.dto.JwtResponse;
 import com.project.ecommerce.dto.MessageResponse;
@@ -39,11 +40,23 @@ public class AuthService {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    CartService cartService;
+
+    @Autowired
+    GuestCartTokens guestCartTokens;
+
     public JwtResponse authenticateUser(AuthRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        // A guest cart reaches the database only now, when its owner signs in
+        if (loginRequest.getGuestCart() != null) {
+            cartService.mergeGuestCart(guestCartTokens.decode(loginRequest.getGuestCart()));
+        }
+
         String jwt = jwtUtils.generateJwtToken(authentication);
 
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
@@ -1,18 +1,37 @@
 package com.project.ecommerce.service;
 
+import com.project.ecommerce.cart.GuestCart;
+import com.project.ecommerce.cart.GuestCartTokens;
+import com.project.ecommerce.cart.MemoryCartStore;
+import com.project.ecommerce.cart.StockReservations;
 import com.project.ecommerce.dto.CartDto;
 import com.project.ecommerce.dto.CartItemDto;
+import com.project.ecommerce.dto.CartOperation;
 import com.project.ecommerce.model.CartItem;
 import com.project.ecommerce.model.Product;
-import com.project.ecommerce.model.User;
+import com.project.ecommerce.repository.CartItemBatchRepository;
 import com.project.ecommerce.repository.CartItemRepository;
+import com.project.ecommerce.repository.GuestCartMergeRepository;
 import com.project.ecommerce.repository.ProductRepository;
+import com.project.ecommerce.util.TransactionHooks;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,13 +45,34 @@ public class CartService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private MemoryCartStore memoryCartStore;
+
+    @Autowired
+    private CartItemBatchRepository cartItemBatchRepository;
+
+    @Autowired
+    private StockReservations stockReservations;
+
+    @Autowired
+    private GuestCartMergeRepository guestCartMergeRepository;
+
+    @Autowired
+    private GuestCartTokens guestCartTokens;
+
+    // Serve carts from MemoryCartStore and write them behind to cart_items
+    @Value("${cart.memory.enabled:false}")
+    private boolean memoryEnabled;
+
     public CartDto getCart() {
-        User currentUser = userService.getCurrentUser();
-        List<CartItem> cartItems = cartItemRepository.findByUser(currentUser);
+        if (memoryEnabled) {
+            return memoryCartStore.getCart(userService.getCurrentUserId());
+        }
 
-        List<CartItemDto> cartItemDtos = cartItems.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<CartItemDto> cartItemDtos = cartItemRepository.findDtosByUserId(userService.getCurrentUserId());
 
         CartDto cartDto = new CartDto();
         cartDto.setItems(cartItemDtos);
@@ -44,15 +84,19 @@ public class CartService {
 
     @Transactional
     public CartDto addToCart(Long productId, Integer quantity) {
-        User currentUser = userService.getCurrentUser();
+        requirePositive(quantity);
+        if (memoryEnabled) {
+            return memoryCartStore.add(userService.getCurrentUserId(), productId, quantity);
+        }
+
+        Long currentUserId = userService.getCurrentUserId();
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
 
-        if (product.getStockQuantity() < quantity) {
-            throw new RuntimeException("Not enough stock available");
-        }
-
-        Optional<CartItem> existingCartItem = cartItemRepository.findByUserAndProduct(currentUser, product);
+        Optional<CartItem> existingCartItem = cartItemRepository.findByUserIdAndProductId(currentUserId, productId);
+        int heldQuantity = existingCartItem.map(CartItem::getQuantity).orElse(0) + quantity;
+        restoreHoldOnRollback(currentUserId, productId);
+        holdStock(currentUserId, productId, inventoryService.getAvailableStock(product), quantity, heldQuantity);
 
         if (existingCartItem.isPresent()) {
             CartItem cartItem = existingCartItem.get();
@@ -60,7 +104,7 @@ public class CartService {
             cartItemRepository.save(cartItem);
         } else {
             CartItem cartItem = new CartItem();
-            cartItem.setUser(currentUser);
+            cartItem.setUser(userService.getCurrentUserReference());
             cartItem.setProduct(product);
             cartItem.setQuantity(quantity);
             cartItemRepository.save(cartItem);
@@ -71,20 +115,24 @@ public class CartService {
 
     @Transactional
     public CartDto updateCartItem(Long cartItemId, Integer quantity) {
+        if (memoryEnabled) {
+            return memoryCartStore.update(userService.getCurrentUserId(), cartItemId, quantity);
+        }
+
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found with id: " + cartItemId));
 
-        User currentUser = userService.getCurrentUser();
-        if (!cartItem.getUser().getId().equals(currentUser.getId())) {
+        if (!cartItem.getUser().getId().equals(userService.getCurrentUserId())) {
             throw new RuntimeException("You are not authorized to update this cart item");
         }
 
         if (quantity <= 0) {
             cartItemRepository.delete(cartItem);
+            releaseStockAfterCommit(cartItem);
         } else {
-            if (cartItem.getProduct().getStockQuantity() < quantity) {
-                throw new RuntimeException("Not enough stock available");
-            }
+            restoreHoldOnRollback(cartItem.getUser().getId(), cartItem.getProduct().getId());
+            holdStock(cartItem.getUser().getId(), cartItem.getProduct().getId(),
+                    inventoryService.getAvailableStock(cartItem.getProduct()), quantity, quantity);
             cartItem.setQuantity(quantity);
             cartItemRepository.save(cartItem);
         }
@@ -94,35 +142,266 @@ public class CartService {
 
     @Transactional
     public CartDto removeFromCart(Long cartItemId) {
+        if (memoryEnabled) {
+            return memoryCartStore.remove(userService.getCurrentUserId(), cartItemId);
+        }
+
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found with id: " + cartItemId));
 
-        User currentUser = userService.getCurrentUser();
-        if (!cartItem.getUser().getId().equals(currentUser.getId())) {
+        if (!cartItem.getUser().getId().equals(userService.getCurrentUserId())) {
             throw new RuntimeException("You are not authorized to remove this cart item");
         }
 
         cartItemRepository.delete(cartItem);
+        releaseStockAfterCommit(cartItem);
         return getCart();
     }
 
     @Transactional
     public void clearCart() {
-        User currentUser = userService.getCurrentUser();
-        List<CartItem> cartItems = cartItemRepository.findByUser(currentUser);
-        cartItemRepository.deleteAll(cartItems);
-    }
-
-    private CartItemDto convertToDto(CartItem cartItem) {
-        CartItemDto dto = new CartItemDto();
-        dto.setId(cartItem.getId());
-        dto.setProductId(cartItem.getProduct().getId());
-        dto.setProductName(cartItem.getProduct().getName());
-        dto.setProductImageUrl(cartItem.getProduct().getImageUrl());
-        dto.setProductPrice(cartItem.getProduct().getPrice());
-        dto.setQuantity(cartItem.getQuantity());
-        dto.setSubtotal(cartItem.getProduct().getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
-        return dto;
+        // Checkout ends here, and its conditional stock decrement takes over from the holds
+        Long userId = userService.getCurrentUserId();
+        TransactionHooks.afterCommit(() -> stockReservations.releaseAll(userId));
+
+        if (memoryEnabled) {
+            // Rows go with the checkout transaction; the in-memory cart only once it has committed
+            cartItemBatchRepository.deleteByUserIds(List.of(userId));
+            TransactionHooks.afterCommit(() -> memoryCartStore.clear(userId));
+            return;
+        }
+
+        cartItemRepository.deleteAllByUserIdInBulk(userId);
+    }
+
+    // Loads the cart and every product the operations add with one query each, applies the operations to
+    // the loaded entities and builds the result from them, so the cart is never re-read
+    @Transactional
+    public CartDto applyOperations(List<CartOperation> operations) {
+        if (memoryEnabled) {
+            return memoryCartStore.apply(userService.getCurrentUserId(), operations);
+        }
+
+        List<CartItem> cartItems = cartItemRepository.findWithProductByUserId(userService.getCurrentUserId());
+        Map<Long, CartItem> itemsById = new HashMap<>();
+        Map<Long, CartItem> itemsByProductId = new HashMap<>();
+        for (CartItem cartItem : cartItems) {
+            itemsById.put(cartItem.getId(), cartItem);
+            itemsByProductId.put(cartItem.getProduct().getId(), cartItem);
+        }
+
+        Set<Long> addedProductIds = new HashSet<>();
+        for (CartOperation operation : operations) {
+            if (operation.getType() == CartOperation.Type.ADD && !itemsByProductId.containsKey(operation.getProductId())) {
+                addedProductIds.add(operation.getProductId());
+            }
+        }
+        Map<Long, Product> addedProducts = productRepository.findAllById(addedProductIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Identity sets: CartItem's generated equals/hashCode follow its mutable fields
+        Set<CartItem> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<CartItem> removed = new ArrayList<>();
+        if (stockReservations.isEnabled()) {
+            // Holds change as the operations run; if anything up to the commit fails, put them back as they were
+            Long userId = userService.getCurrentUserId();
+            Map<Long, Integer> heldBefore = stockReservations.getHolds(userId);
+            TransactionHooks.afterRollback(() -> stockReservations.restore(userId, heldBefore));
+        }
+        for (CartOperation operation : operations) {
+            switch (operation.getType()) {
+                case ADD -> {
+                    int quantity = requireQuantity(operation);
+                    requirePositive(quantity);
+                    CartItem cartItem = itemsByProductId.get(operation.getProductId());
+                    if (cartItem == null) {
+                        Product product = addedProducts.get(operation.getProductId());
+                        if (product == null) {
+                            throw new RuntimeException("Product not found with id: " + operation.getProductId());
+                        }
+                        cartItem = new CartItem();
+                        cartItem.setUser(userService.getCurrentUserReference());
+                        cartItem.setProduct(product);
+                        cartItem.setQuantity(0);
+                        cartItems.add(cartItem);
+                        itemsByProductId.put(product.getId(), cartItem);
+                    }
+                    setQuantity(cartItem, cartItem.getQuantity() + quantity);
+                    changed.add(cartItem);
+                }
+                case UPDATE -> {
+                    CartItem cartItem = findOwnItem(itemsById, operation.getCartItemId());
+                    int quantity = requireQuantity(operation);
+                    if (quantity <= 0) {
+                        removeItem(cartItem, cartItems, itemsById, itemsByProductId, changed, removed);
+                    } else {
+                        setQuantity(cartItem, quantity);
+                        changed.add(cartItem);
+                    }
+                }
+                case REMOVE -> removeItem(findOwnItem(itemsById, operation.getCartItemId()),
+                        cartItems, itemsById, itemsByProductId, changed, removed);
+            }
+        }
+
+        cartItemRepository.saveAll(changed);
+        cartItemRepository.deleteAll(removed);
+
+        List<CartItemDto> cartItemDtos = cartItems.stream()
+                .sorted(Comparator.comparing(CartItem::getId))
+                .map(cartItem -> new CartItemDto(cartItem.getId(), cartItem.getProduct().getId(),
+                        cartItem.getProduct().getName(), cartItem.getProduct().getImageUrl(),
+                        cartItem.getProduct().getPrice(), cartItem.getQuantity()))
+                .collect(Collectors.toList());
+
+        CartDto cartDto = new CartDto();
+        cartDto.setItems(cartItemDtos);
+        cartDto.setTotalItems(cartItemDtos.size());
+        cartDto.setTotalPrice(calculateTotalPrice(cartItemDtos));
+        return cartDto;
+    }
+
+    // Adds a guest cart's lines to the signed-in user's cart with one read of the products, one of the saved cart
+    // and one batched write. Products that have left the catalog are dropped. Merged lines take no stock
+    // reservations and are not checked against stock; checkout's conditional decrement decides, as it does for
+    // lines whose holds have lapsed. Each guest cart merges once: its nonce is claimed in the same transaction.
+    @Transactional
+    public void mergeGuestCart(GuestCart guestCart) {
+        Map<Long, Integer> guestQuantities = guestCart.quantities();
+        if (guestQuantities.isEmpty()) {
+            return;
+        }
+        // Guest requests stop extending a merged cart, so no token for it outlives the claim
+        LocalDateTime expiresAt = LocalDateTime.now().plus(Duration.ofMillis(guestCartTokens.getTtlMillis()));
+        if (guestCartMergeRepository.claim(guestCart.nonce(), expiresAt) == 0) {
+            return;
+        }
+
+        Long userId = userService.getCurrentUserId();
+        Map<Long, Product> products = productRepository.findAllById(guestQuantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (memoryEnabled) {
+            Map<Long, Integer> quantities = new HashMap<>(guestQuantities);
+            quantities.keySet().retainAll(products.keySet());
+            memoryCartStore.merge(userId, quantities);
+            return;
+        }
+
+        Map<Long, CartItem> savedItems = new HashMap<>();
+        cartItemRepository.findWithProductByUserId(userId)
+                .forEach(cartItem -> savedItems.put(cartItem.getProduct().getId(), cartItem));
+
+        List<CartItem> merged = new ArrayList<>();
+        products.forEach((productId, product) -> {
+            CartItem cartItem = savedItems.get(productId);
+            if (cartItem == null) {
+                cartItem = new CartItem();
+                cartItem.setUser(userService.getCurrentUserReference());
+                cartItem.setProduct(product);
+                cartItem.setQuantity(0);
+            }
+            cartItem.setQuantity(cartItem.getQuantity() + guestQuantities.get(productId));
+            merged.add(cartItem);
+        });
+        cartItemRepository.saveAll(merged);
+    }
+
+    // Cart lines with their products loaded, for turning the cart into an order
+    public List<CartItem> getCheckoutItems() {
+        Long userId = userService.getCurrentUserId();
+        if (!memoryEnabled) {
+            return cartItemRepository.findWithProductByUserId(userId);
+        }
+
+        Map<Long, Integer> quantities = memoryCartStore.getQuantities(userId);
+        Map<Long, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<CartItem> cartItems = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new RuntimeException("Product not found with id: " + productId);
+            }
+            CartItem cartItem = new CartItem();
+            cartItem.setProduct(product);
+            cartItem.setQuantity(quantity);
+            cartItems.add(cartItem);
+        });
+        return cartItems;
+    }
+
+    private CartItem findOwnItem(Map<Long, CartItem> itemsById, Long cartItemId) {
+        // Only the current user's items were loaded, so anyone else's id is simply not found
+        CartItem cartItem = itemsById.get(cartItemId);
+        if (cartItem == null) {
+            throw new RuntimeException("Cart item not found with id: " + cartItemId);
+        }
+        return cartItem;
+    }
+
+    private int requireQuantity(CartOperation operation) {
+        if (operation.getQuantity() == null) {
+            throw new RuntimeException("Quantity is required for " + operation.getType() + " operations");
+        }
+        return operation.getQuantity();
+    }
+
+    private void requirePositive(Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Quantity must be greater than zero");
+        }
+    }
+
+    private void setQuantity(CartItem cartItem, int quantity) {
+        holdStock(userService.getCurrentUserId(), cartItem.getProduct().getId(),
+                inventoryService.getAvailableStock(cartItem.getProduct()), quantity, quantity);
+        cartItem.setQuantity(quantity);
+    }
+
+    // With reservations on, the user's hold becomes heldQuantity and has to fit beside everyone else's;
+    // otherwise only the requested quantity is checked against stock, as before
+    private void holdStock(Long userId, Long productId, int availableStock, int requestedQuantity, int heldQuantity) {
+        if (stockReservations.isEnabled()) {
+            stockReservations.reserve(userId, productId, heldQuantity, availableStock);
+        } else if (availableStock < requestedQuantity) {
+            throw new RuntimeException("Not enough stock available");
+        }
+    }
+
+    // A single line takes its new hold straight away so the stock check and the hold are one step;
+    // the hold it replaced comes back if the transaction then rolls back
+    private void restoreHoldOnRollback(Long userId, Long productId) {
+        if (stockReservations.isEnabled()) {
+            Integer previous = stockReservations.getHold(userId, productId);
+            TransactionHooks.afterRollback(() -> stockReservations.restore(userId, productId, previous));
+        }
+    }
+
+    private void releaseStockAfterCommit(CartItem cartItem) {
+        if (stockReservations.isEnabled()) {
+            Long userId = cartItem.getUser().getId();
+            Long productId = cartItem.getProduct().getId();
+            TransactionHooks.afterCommit(() -> stockReservations.release(userId, productId));
+        }
+    }
+
+    // Within a batch a removed line frees its stock for the operations after it; the batch's rollback
+    // synchronization puts the hold back if the batch fails
+    private void releaseStock(CartItem cartItem) {
+        if (stockReservations.isEnabled()) {
+            stockReservations.release(cartItem.getUser().getId(), cartItem.getProduct().getId());
+        }
+    }
+
+    private void removeItem(CartItem cartItem, List<CartItem> cartItems, Map<Long, CartItem> itemsById,
+                            Map<Long, CartItem> itemsByProductId, Set<CartItem> changed, List<CartItem> removed) {
+        cartItems.removeIf(item -> item == cartItem);
+        itemsById.remove(cartItem.getId());
+        itemsByProductId.remove(cartItem.getProduct().getId());
+        changed.remove(cartItem);
+        removed.add(cartItem);
+        releaseStock(cartItem);
     }
 
     private BigDecimal calculateTotalPrice(List<CartItemDto> cartItems) {
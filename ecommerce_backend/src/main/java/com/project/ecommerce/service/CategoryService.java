@@ -1,10 +1,18 @@
 package com.project.ecommerce.service;
 
+import com.project.ecommerce.cache.CatalogCache;
 import com.project.ecommerce.dto.CategoryDto;
 import com.project.ecommerce.model.Category;
 import com.project.ecommerce.repository.CategoryRepository;
+import com.project.ecommerce.repository.InventoryRepository;
+import com.project.ecommerce.repository.ProductRepository;
+import com.project.ecommerce.search.AutocompleteIndex;
+import com.project.ecommerce.search.ProductFacetIndex;
+import com.project.ecommerce.search.ProductSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.project.ecommerce.util.TransactionHooks;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -13,10 +21,28 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
     public List<CategoryDto> getAllCategories() {
-        return categoryRepository.findAll().stream()
+        return catalogCache.getCategories(() -> categoryRepository.findAll().stream()
                 .map(this::convertToDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     public CategoryDto getCategoryById(Long id) {
@@ -35,6 +61,8 @@ public class CategoryService {
         category.setDescription(categoryDto.getDescription());
 
         Category savedCategory = categoryRepository.save(category);
+        catalogCache.evictCategories();
+        autocompleteIndex.indexCategory(savedCategory.getId(), savedCategory.getName());
         return convertToDto(savedCategory);
     }
 
@@ -46,14 +74,29 @@ public class CategoryService {
         category.setDescription(categoryDto.getDescription());
 
         Category updatedCategory = categoryRepository.save(category);
+        catalogCache.evictCategory(id);
+        autocompleteIndex.indexCategory(id, updatedCategory.getName());
         return convertToDto(updatedCategory);
     }
 
+    // The bucket rows and the category go in one transaction, so a failed delete keeps the striped stock
+    @Transactional
     public void deleteCategory(Long id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
 
+        // Products are removed along with their category, so drop them from the search index too
+        List<Long> productIds = productRepository.findIdsByCategoryId(id);
+        inventoryRepository.removeBucketsForCategory(id);
         categoryRepository.delete(category);
+        TransactionHooks.afterCommit(() -> {
+            productIds.forEach(productSearchIndex::remove);
+            productIds.forEach(productFacetIndex::remove);
+            productIds.forEach(autocompleteIndex::removeProduct);
+            autocompleteIndex.removeCategory(id);
+            productIds.forEach(productId -> catalogCache.evictProduct(productId));
+            catalogCache.evictCategory(id);
+        });
     }
 
     private CategoryDto convertToDto(Category category) {
@@ -0,0 +1,120 @@
+package com.project.ecommerce.service;
+
+import com.project.ecommerce.cart.GuestCart;
+import com.project.ecommerce.cart.GuestCartTokens;
+import com.project.ecommerce.dto.CartDto;
+import com.project.ecommerce.dto.CartItemDto;
+import com.project.ecommerce.dto.GuestCartResponse;
+import com.project.ecommerce.dto.ProductDto;
+import com.project.ecommerce.repository.GuestCartMergeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Carts for signed-out shoppers, carried in a signed token; products are read through the catalog cache and
+// nothing is written until the shopper signs in and the cart is merged into theirs. Each request looks the
+// token's nonce up among merged carts by primary key, so a merged token cannot be replayed or kept alive.
+@Service
+public class GuestCartService {
+    @Autowired
+    private GuestCartTokens guestCartTokens;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private GuestCartMergeRepository guestCartMergeRepository;
+
+    public GuestCartResponse getCart(String token) {
+        GuestCart cart = load(token);
+        return toResponse(cart.nonce(), cart.quantities());
+    }
+
+    public GuestCartResponse addToCart(String token, Long productId, Integer quantity) {
+        GuestCart cart = load(token);
+        Map<Long, Integer> quantities = cart.quantities();
+        if (!quantities.containsKey(productId) && quantities.size() >= guestCartTokens.getMaxLines()) {
+            throw new RuntimeException("Guest cart is full");
+        }
+
+        int newQuantity = quantities.getOrDefault(productId, 0) + quantity;
+        checkStock(productId, newQuantity);
+        quantities.put(productId, newQuantity);
+        return toResponse(cart.nonce(), quantities);
+    }
+
+    public GuestCartResponse updateCartItem(String token, Long productId, Integer quantity) {
+        GuestCart cart = load(token);
+        Map<Long, Integer> quantities = cart.quantities();
+        if (!quantities.containsKey(productId)) {
+            throw new RuntimeException("Product " + productId + " is not in the cart");
+        }
+
+        if (quantity <= 0) {
+            quantities.remove(productId);
+        } else {
+            checkStock(productId, quantity);
+            quantities.put(productId, quantity);
+        }
+        return toResponse(cart.nonce(), quantities);
+    }
+
+    public GuestCartResponse removeFromCart(String token, Long productId) {
+        GuestCart cart = load(token);
+        cart.quantities().remove(productId);
+        return toResponse(cart.nonce(), cart.quantities());
+    }
+
+    // Merged tokens only need remembering until they expire, after which decode rejects them anyway
+    @Scheduled(fixedDelayString = "${cart.guest.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpiredMerges() {
+        guestCartMergeRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    // A cart already merged at sign-in starts over empty, under a new nonce
+    private GuestCart load(String token) {
+        GuestCart cart = guestCartTokens.decode(token);
+        if (cart.nonce() != null && guestCartMergeRepository.existsById(cart.nonce())) {
+            return GuestCart.empty();
+        }
+        return cart;
+    }
+
+    private void checkStock(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new RuntimeException("Quantity must be positive");
+        }
+        if (productService.getProductById(productId).getStockQuantity() < quantity) {
+            throw new RuntimeException("Not enough stock available");
+        }
+    }
+
+    // Lines whose product has since been deleted are dropped from the returned token
+    private GuestCartResponse toResponse(String nonce, Map<Long, Integer> quantities) {
+        List<CartItemDto> items = new ArrayList<>();
+        quantities.entrySet().removeIf(line -> {
+            ProductDto product;
+            try {
+                product = productService.getProductById(line.getKey());
+            } catch (RuntimeException e) {
+                return true;
+            }
+            items.add(new CartItemDto(null, product.getId(), product.getName(), product.getImageUrl(),
+                    product.getPrice(), line.getValue()));
+            return false;
+        });
+
+        CartDto cart = new CartDto();
+        cart.setItems(items);
+        cart.setTotalItems(items.size());
+        cart.setTotalPrice(items.stream().map(CartItemDto::getSubtotal).reduce(BigDecimal.ZERO, BigDecimal::add));
+        return new GuestCartResponse(guestCartTokens.encode(nonce, quantities), cart);
+    }
+}
@@ -0,0 +1,102 @@
+package com.project.ecommerce.service;
+
+import com.project.ecommerce.cache.LruCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotencyService {
+    @Autowired
+    private UserService userService;
+
+    @Value("${idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+
+    // Calls still running are never evicted, so a duplicate always finds and waits on them; only finished
+    // responses go into the bounded cache
+    private final Map<String, CompletableFuture<ResponseEntity<?>>> inFlight = new ConcurrentHashMap<>();
+    private LruCache<String, ResponseEntity<?>> completed;
+
+    @PostConstruct
+    public void init() {
+        completed = new LruCache<>(maxEntries, ttlMs);
+    }
+
+    // Runs the action once per (user, operation, key); retries get the stored response and
+    // duplicates arriving while the first call is still running wait for its outcome.
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String operation, Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+
+        String key = userService.getCurrentUserId() + ":" + operation + ":" + idempotencyKey;
+        ResponseEntity<?> stored = completed.get(key);
+        if (stored != null) {
+            return (ResponseEntity<T>) stored;
+        }
+
+        CompletableFuture<ResponseEntity<?>> execution = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> existing = inFlight.putIfAbsent(key, execution);
+        if (existing != null) {
+            return (ResponseEntity<T>) await(existing);
+        }
+
+        // The previous owner may have finished between the lookup above and claiming the key; this re-check is
+        // not a separate cache read, so it stays out of the hit and miss counts
+        stored = completed.peek(key);
+        if (stored != null) {
+            inFlight.remove(key, execution);
+            execution.complete(stored);
+            return (ResponseEntity<T>) stored;
+        }
+
+        try {
+            ResponseEntity<T> response = action.get();
+            completed.put(key, response);
+            inFlight.remove(key, execution);
+            execution.complete(response);
+            return response;
+        } catch (Throwable e) {
+            // Failed attempts are forgotten so the client can retry them
+            inFlight.remove(key, execution);
+            execution.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private ResponseEntity<?> await(CompletableFuture<ResponseEntity<?>> execution) {
+        try {
+            return execution.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a duplicate request");
+        }
+    }
+}
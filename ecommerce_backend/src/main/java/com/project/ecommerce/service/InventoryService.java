@@ -0,0 +1,98 @@
+package com.project.ecommerce.service;
+
+import com.project.ecommerce.model.Product;
+import com.project.ecommerce.repository.InventoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class InventoryService {
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Value("${inventory.striping.max-buckets:64}")
+    private int maxBuckets;
+
+    public boolean isStriped(Product product) {
+        return product.getStockBuckets() != null && product.getStockBuckets() > 0;
+    }
+
+    public int getAvailableStock(Product product) {
+        if (!isStriped(product)) {
+            return product.getStockQuantity();
+        }
+        return product.getStockQuantity() + inventoryRepository.getStripedStock(product.getId());
+    }
+
+    // Returns the ids of products that could not cover the requested quantity
+    public List<Long> decrementStock(Collection<Product> products, Map<Long, Integer> quantitiesByProductId) {
+        Map<Long, Integer> rowStock = new HashMap<>();
+        List<Product> stripedProducts = new ArrayList<>();
+        for (Product product : products) {
+            if (isStriped(product)) {
+                stripedProducts.add(product);
+            } else {
+                rowStock.put(product.getId(), quantitiesByProductId.get(product.getId()));
+            }
+        }
+
+        List<Long> insufficient = new ArrayList<>(inventoryRepository.decrementStock(rowStock));
+        for (Product product : stripedProducts) {
+            int quantity = quantitiesByProductId.get(product.getId());
+            if (!inventoryRepository.decrementStripedStock(product.getId(), quantity, product.getStockBuckets())) {
+                insufficient.add(product.getId());
+            }
+        }
+        return insufficient;
+    }
+
+    // Gives back stock taken by decrementStock, e.g. when a later line of the same order fell short
+    public void restoreStock(Collection<Product> products, Map<Long, Integer> quantitiesByProductId) {
+        Map<Long, Integer> rowStock = new HashMap<>();
+        for (Product product : products) {
+            Integer quantity = quantitiesByProductId.get(product.getId());
+            if (quantity == null) {
+                continue;
+            }
+            if (isStriped(product)) {
+                inventoryRepository.incrementStripedStock(product.getId(), quantity, product.getStockBuckets());
+            } else {
+                rowStock.put(product.getId(), quantity);
+            }
+        }
+        inventoryRepository.incrementStock(rowStock);
+    }
+
+    @Transactional
+    public void stripeStock(Long productId, int buckets) {
+        if (buckets < 1 || buckets > maxBuckets) {
+            throw new RuntimeException("Stock buckets must be between 1 and " + maxBuckets);
+        }
+
+        int total = inventoryRepository.lockStock(productId) + inventoryRepository.removeBuckets(productId);
+        inventoryRepository.createBuckets(productId, total, buckets);
+        inventoryRepository.setStock(productId, 0, buckets);
+    }
+
+    @Transactional
+    public void unstripeStock(Long productId) {
+        int total = inventoryRepository.lockStock(productId) + inventoryRepository.removeBuckets(productId);
+        inventoryRepository.setStock(productId, total, null);
+    }
+
+    // Replaces the stock of a striped product, spreading the new total over its existing buckets
+    @Transactional
+    public void replaceStripedStock(Long productId, int stock, int buckets) {
+        inventoryRepository.lockStock(productId);
+        inventoryRepository.removeBuckets(productId);
+        inventoryRepository.createBuckets(productId, stock, buckets);
+        inventoryRepository.setStock(productId, 0, buckets);
+    }
+}
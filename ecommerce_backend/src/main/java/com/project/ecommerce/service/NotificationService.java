@@ -0,0 +1,95 @@
+package com.project.ecommerce.service;
+
+import com.project.ecommerce.dto.CursorPage;
+import com.project.ecommerce.dto.OrderNotificationDto;
+import com.project.ecommerce.model.Order;
+import com.project.ecommerce.model.OrderNotification;
+import com.project.ecommerce.repository.OrderNotificationRepository;
+import com.project.ecommerce.repository.OrderRepository;
+import com.project.ecommerce.util.CursorCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class NotificationService {
+    @Autowired
+    private OrderNotificationRepository orderNotificationRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Value("${notifications.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${notifications.page.max-size:100}")
+    private int maxPageSize;
+
+    // Newest first, keyed on (createdAt, eventId) like order history
+    @Transactional(readOnly = true)
+    public CursorPage<OrderNotificationDto> getNotifications(String cursor, Integer size) {
+        Long userId = userService.getCurrentUserId();
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<OrderNotification> notifications;
+        if (cursor == null || cursor.isBlank()) {
+            notifications = orderNotificationRepository.findPageByUserId(userId, limit);
+        } else {
+            String[] position = CursorCodec.decode(cursor, 2);
+            try {
+                notifications = orderNotificationRepository.findPageByUserIdBefore(userId,
+                        LocalDateTime.parse(position[0]), Long.parseLong(position[1]), limit);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new RuntimeException("Invalid cursor: " + cursor);
+            }
+        }
+
+        boolean hasMore = notifications.size() > pageSize;
+        List<OrderNotification> page = notifications.subList(0, Math.min(notifications.size(), pageSize));
+        String nextCursor = null;
+        if (hasMore) {
+            OrderNotification last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getEventId());
+        }
+        List<OrderNotificationDto> items = page.stream()
+                .map(notification -> new OrderNotificationDto(notification.getEventId(), notification.getOrderId(),
+                        notification.getMessage(), notification.getCreatedAt()))
+                .collect(Collectors.toList());
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    // Called once per delivery of an order event; a redelivered event is ignored by the insert
+    @Transactional
+    public void recordOrderEvent(Long eventId, Long orderId, Long userId, Order.OrderStatus fromStatus,
+                                 Order.OrderStatus toStatus, LocalDateTime createdAt) {
+        // Bulk status changes do not carry the user; an order deleted since then has nobody to tell
+        Long recipient = userId != null ? userId : orderRepository.findUserIdById(orderId).orElse(null);
+        String message = message(orderId, fromStatus, toStatus);
+        if (recipient == null || message == null) {
+            return;
+        }
+        orderNotificationRepository.record(eventId, recipient, orderId, message, createdAt);
+    }
+
+    private String message(Long orderId, Order.OrderStatus fromStatus, Order.OrderStatus toStatus) {
+        return switch (toStatus) {
+            case ACCEPTED -> "Order #" + orderId + " has been received and is being confirmed";
+            case PENDING -> fromStatus == Order.OrderStatus.PENDING ? null : "Order #" + orderId + " has been placed";
+            case PROCESSING -> "Order #" + orderId + " is being prepared";
+            case SHIPPED -> "Order #" + orderId + " has shipped";
+            case DELIVERED -> "Order #" + orderId + " has been delivered";
+            case CANCELLED -> "Order #" + orderId + " has been cancelled";
+            case FAILED -> "Order #" + orderId + " could not be completed";
+        };
+    }
+}
@@ -1,23 +1,46 @@
 package com.project.ecommerce.service;
 
+import com.project.ecommerce.cache.CatalogCache;
+import com.project.ecommerce.dto.BulkStatusUpdateResponse;
 import com.project.ecommerce.dto.CheckoutRequest;
+import com.project.ecommerce.dto.CursorPage;
 import com.project.ecommerce.dto.OrderDto;
 import com.project.ecommerce.dto.OrderItemDto;
 import com.project.ecommerce.model.*;
-import com.project.ecommerce.repository.CartItemRepository;
+import com.project.ecommerce.outbox.OutboxPublisher;
 import com.project.ecommerce.repository.OrderItemRepository;
 import com.project.ecommerce.repository.OrderRepository;
+import com.project.ecommerce.repository.OrderSpecifications;
 import com.project.ecommerce.repository.ProductRepository;
+import com.project.ecommerce.search.ProductFacetIndex;
+import com.project.ecommerce.util.CursorCodec;
+import com.project.ecommerce.util.TransactionHooks;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "orderDate")
+            .and(Sort.by(Sort.Direction.DESC, "id"));
+    private static final Set<Order.OrderStatus> CHECKOUT_STATUSES =
+            EnumSet.of(Order.OrderStatus.ACCEPTED, Order.OrderStatus.FAILED);
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -25,10 +48,10 @@ public class OrderService {
     private OrderItemRepository orderItemRepository;
 
     @Autowired
-    private CartItemRepository cartItemRepository;
+    private ProductRepository productRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private InventoryService inventoryService;
 
     @Autowired
     private UserService userService;
@@ -36,21 +59,104 @@ public class OrderService {
     @Autowired
     private CartService cartService;
 
-    public List<OrderDto> getUserOrders() {
-        User currentUser = userService.getCurrentUser();
-        List<Order> orders = orderRepository.findByUserOrderByOrderDateDesc(currentUser);
+    @Autowired
+    private CatalogCache catalogCache;
 
-        return orders.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Value("${orders.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${orders.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${orders.bulk-update.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    // Newest first, keyed on (orderDate, id). Items for the whole page come from one fetch-join
+    // query, and summary mode skips order_items entirely.
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDto> getUserOrders(String cursor, Integer size, boolean summary) {
+        Long userId = userService.getCurrentUserId();
+        int pageSize = resolvePageSize(size);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        OrderCursor position = decodeOrderCursor(cursor);
+        List<Order> orders = position == null
+                ? orderRepository.findPageByUserId(userId, limit)
+                : orderRepository.findPageByUserIdBefore(userId, position.orderDate(), position.id(), limit);
+        return toOrderPage(orders, pageSize, summary);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDto> searchOrders(Order.OrderStatus status, LocalDateTime from, LocalDateTime to,
+                                             Long userId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        OrderCursor position = decodeOrderCursor(cursor);
+        Specification<Order> filter = OrderSpecifications.search(status, from, to, userId,
+                position != null ? position.orderDate() : null,
+                position != null ? position.id() : null);
+
+        List<Order> orders = orderRepository.findBy(filter,
+                query -> query.sortBy(NEWEST_FIRST).limit(pageSize + 1).all());
+        return toOrderPage(orders, pageSize, true);
+    }
+
+    // Moves every order in fromStatus to toStatus with set-based UPDATEs, one short transaction per chunk
+    public BulkStatusUpdateResponse bulkUpdateStatus(Order.OrderStatus fromStatus, Order.OrderStatus toStatus,
+                                                     Integer limit) {
+        if (fromStatus == toStatus) {
+            throw new RuntimeException("Orders are already in status " + toStatus);
+        }
+        if (CHECKOUT_STATUSES.contains(fromStatus) || CHECKOUT_STATUSES.contains(toStatus)) {
+            throw new RuntimeException("ACCEPTED and FAILED orders are managed by checkout");
+        }
+
+        int remaining = limit != null && limit > 0 ? limit : Integer.MAX_VALUE;
+        long afterId = 0L;
+        int updated = 0;
+        int chunks = 0;
+        while (remaining > 0) {
+            List<Long> ids = orderRepository.findIdsByStatusAfter(
+                    fromStatus, afterId, PageRequest.of(0, Math.min(bulkChunkSize, remaining)));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            // Locking first pins down exactly which orders move, so the rollup deltas match the UPDATE
+            Integer chunkUpdated = transactionTemplate.execute(status -> {
+                List<Long> lockedIds = orderRepository.lockIdsByIdInAndStatus(ids, fromStatus.name());
+                if (lockedIds.isEmpty()) {
+                    return 0;
+                }
+                int chunkCount = orderRepository.updateStatus(lockedIds, fromStatus, toStatus);
+                salesRollupService.recordTransition(lockedIds, fromStatus, toStatus);
+                outboxPublisher.orderStatusChanged(lockedIds, fromStatus, toStatus);
+                return chunkCount;
+            });
+            updated += chunkUpdated != null ? chunkUpdated : 0;
+            chunks++;
+            remaining -= ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+        return new BulkStatusUpdateResponse(updated, chunks);
     }
 
     public OrderDto getOrderById(Long id) {
-        User currentUser = userService.getCurrentUser();
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
 
-        if (!order.getUser().getId().equals(currentUser.getId())) {
+        if (!order.getUser().getId().equals(userService.getCurrentUserId())) {
             throw new RuntimeException("You are not authorized to view this order");
         }
 
@@ -59,8 +165,99 @@ public class OrderService {
 
     @Transactional
     public OrderDto checkout(CheckoutRequest checkoutRequest) {
-        User currentUser = userService.getCurrentUser();
-        List<CartItem> cartItems = cartItemRepository.findByUser(currentUser);
+        Order order = createOrderFromCart(checkoutRequest, Order.OrderStatus.PENDING);
+
+        // Update product stock with conditional decrements; any shortfall rolls back the whole order
+        List<Long> outOfStock = decrementStock(order);
+        if (!outOfStock.isEmpty()) {
+            throw new RuntimeException("Product " + productNames(order, outOfStock) + " is out of stock");
+        }
+
+        Order savedOrder = orderRepository.save(order);
+        salesRollupService.recordSale(savedOrder);
+        outboxPublisher.orderCreated(savedOrder);
+
+        // Clear cart
+        cartService.clearCart();
+
+        return convertToDto(savedOrder);
+    }
+
+    // First half of an asynchronous checkout: snapshot the cart into an ACCEPTED order and clear it.
+    // Stock is settled later by completeAcceptedOrders on a checkout worker.
+    @Transactional
+    public OrderDto acceptCheckout(CheckoutRequest checkoutRequest) {
+        Order order = createOrderFromCart(checkoutRequest, Order.OrderStatus.ACCEPTED);
+        Order savedOrder = orderRepository.save(order);
+        outboxPublisher.orderCreated(savedOrder);
+
+        cartService.clearCart();
+
+        return convertToDto(savedOrder);
+    }
+
+    // Settles a batch of accepted orders in one transaction. An order that cannot get all of its
+    // stock has its partial decrements undone and is marked FAILED without affecting the others.
+    @Transactional
+    public void completeAcceptedOrders(List<Long> orderIds) {
+        // Lock the rows first so no other writer can move an order out of ACCEPTED while it settles
+        List<Long> lockedIds = orderRepository.lockIdsByIdInAndStatus(orderIds, Order.OrderStatus.ACCEPTED.name());
+        if (lockedIds.isEmpty()) {
+            return;
+        }
+        List<Order> orders = orderRepository.findWithItemsByIdInAndStatus(lockedIds, Order.OrderStatus.ACCEPTED);
+
+        for (Order order : orders) {
+            List<Long> outOfStock = decrementStock(order);
+            if (outOfStock.isEmpty()) {
+                order.setStatus(Order.OrderStatus.PENDING);
+                salesRollupService.recordSale(order);
+            } else {
+                restoreStock(order, outOfStock);
+                order.setStatus(Order.OrderStatus.FAILED);
+                order.setFailureReason("Product " + productNames(order, outOfStock) + " is out of stock");
+            }
+            outboxPublisher.orderStatusChanged(order, Order.OrderStatus.ACCEPTED);
+        }
+    }
+
+    @Transactional
+    public void failAcceptedOrder(Long orderId, String reason) {
+        orderRepository.findById(orderId)
+                .filter(order -> order.getStatus() == Order.OrderStatus.ACCEPTED)
+                .ifPresent(order -> {
+                    order.setStatus(Order.OrderStatus.FAILED);
+                    order.setFailureReason(reason);
+                    outboxPublisher.orderStatusChanged(order, Order.OrderStatus.ACCEPTED);
+                });
+    }
+
+    public List<Long> getAcceptedOrderIds() {
+        return orderRepository.findIdsByStatus(Order.OrderStatus.ACCEPTED);
+    }
+
+    @Transactional
+    public OrderDto updateOrderStatus(Long id, Order.OrderStatus status) {
+        if (CHECKOUT_STATUSES.contains(status)) {
+            throw new RuntimeException("ACCEPTED and FAILED orders are managed by checkout");
+        }
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+
+        Order.OrderStatus previousStatus = order.getStatus();
+        if (CHECKOUT_STATUSES.contains(previousStatus)) {
+            throw new RuntimeException("ACCEPTED and FAILED orders are managed by checkout");
+        }
+        order.setStatus(status);
+        Order updatedOrder = orderRepository.save(order);
+        salesRollupService.recordTransition(updatedOrder, previousStatus, status);
+        outboxPublisher.orderStatusChanged(updatedOrder, previousStatus);
+
+        return convertToDto(updatedOrder);
+    }
+
+    private Order createOrderFromCart(CheckoutRequest checkoutRequest, Order.OrderStatus status) {
+        List<CartItem> cartItems = cartService.getCheckoutItems();
 
         if (cartItems.isEmpty()) {
             throw new RuntimeException("Your cart is empty");
@@ -68,28 +265,18 @@ public class OrderService {
 
         // Create new order
         Order order = new Order();
-        order.setUser(currentUser);
+        order.setUser(userService.getCurrentUserReference());
         order.setOrderDate(LocalDateTime.now());
-        order.setStatus(Order.OrderStatus.PENDING);
+        order.setStatus(status);
         order.setShippingAddress(checkoutRequest.getShippingAddress());
         order.setPaymentMethod(checkoutRequest.getPaymentMethod());
 
         BigDecimal totalAmount = BigDecimal.ZERO;
 
-        // Create order items and update product stock
+        // Create order items
         for (CartItem cartItem : cartItems) {
             Product product = cartItem.getProduct();
 
-            // Check if product is in stock
-            if (product.getStockQuantity() < cartItem.getQuantity()) {
-                throw new RuntimeException("Product " + product.getName() + " is out of stock");
-            }
-
-            // Update product stock
-            product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
-            productRepository.save(product);
-
-            // Create order item
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setProduct(product);
@@ -104,32 +291,112 @@ public class OrderService {
         }
 
         order.setTotalAmount(totalAmount);
-        Order savedOrder = orderRepository.save(order);
+        return order;
+    }
 
-        // Clear cart
-        cartService.clearCart();
+    // Returns the ids of products that lacked stock; cached products are evicted once the change commits
+    private List<Long> decrementStock(Order order) {
+        Map<Long, Product> productsById = productsById(order);
+        List<Long> outOfStock = inventoryService.decrementStock(productsById.values(), quantitiesByProductId(order));
+
+        TransactionHooks.afterCommit(() -> {
+            productsById.values().forEach(product ->
+                    catalogCache.evictProduct(product.getId(), product.getCategory().getId()));
+            productFacetIndex.markStale(productsById.keySet());
+        });
+        return outOfStock;
+    }
 
-        return convertToDto(savedOrder);
+    private void restoreStock(Order order, List<Long> outOfStock) {
+        Map<Long, Integer> decremented = quantitiesByProductId(order);
+        decremented.keySet().removeAll(outOfStock);
+        inventoryService.restoreStock(productsById(order).values(), decremented);
     }
 
-    public OrderDto updateOrderStatus(Long id, Order.OrderStatus status) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+    private Map<Long, Product> productsById(Order order) {
+        Map<Long, Product> productsById = new HashMap<>();
+        order.getItems().forEach(item -> productsById.put(item.getProduct().getId(), item.getProduct()));
+        return productsById;
+    }
 
-        order.setStatus(status);
-        Order updatedOrder = orderRepository.save(order);
+    private Map<Long, Integer> quantitiesByProductId(Order order) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        order.getItems().forEach(item -> quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum));
+        return quantities;
+    }
 
-        return convertToDto(updatedOrder);
+    private String productNames(Order order, List<Long> productIds) {
+        Map<Long, Product> productsById = productsById(order);
+        return productIds.stream()
+                .map(productId -> productsById.get(productId).getName())
+                .collect(Collectors.joining(", "));
     }
 
-    private OrderDto convertToDto(Order order) {
+    private OrderCursor decodeOrderCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] position = CursorCodec.decode(cursor, 2);
+        try {
+            return new OrderCursor(LocalDateTime.parse(position[0]), Long.parseLong(position[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private CursorPage<OrderDto> toOrderPage(List<Order> orders, int pageSize, boolean summary) {
+        boolean hasMore = orders.size() > pageSize;
+        List<Order> pageOrders = orders.subList(0, Math.min(orders.size(), pageSize));
+
+        Map<Long, List<OrderItemDto>> itemsByOrderId = new HashMap<>();
+        if (!summary && !pageOrders.isEmpty()) {
+            List<Long> orderIds = pageOrders.stream().map(Order::getId).collect(Collectors.toList());
+            for (OrderItem orderItem : orderItemRepository.findWithProductByOrderIdIn(orderIds)) {
+                itemsByOrderId.computeIfAbsent(orderItem.getOrder().getId(), key -> new ArrayList<>())
+                        .add(convertToDto(orderItem));
+            }
+        }
+
+        List<OrderDto> items = pageOrders.stream()
+                .map(order -> {
+                    OrderDto dto = convertToSummaryDto(order);
+                    if (!summary) {
+                        dto.setItems(itemsByOrderId.getOrDefault(order.getId(), new ArrayList<>()));
+                    }
+                    return dto;
+                })
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasMore) {
+            Order last = pageOrders.get(pageOrders.size() - 1);
+            nextCursor = CursorCodec.encode(last.getOrderDate(), last.getId());
+        }
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    private OrderDto convertToSummaryDto(Order order) {
         OrderDto dto = new OrderDto();
         dto.setId(order.getId());
+        dto.setUserId(order.getUser().getId());
         dto.setOrderDate(order.getOrderDate());
         dto.setTotalAmount(order.getTotalAmount());
         dto.setStatus(order.getStatus().name());
         dto.setShippingAddress(order.getShippingAddress());
         dto.setPaymentMethod(order.getPaymentMethod());
+        dto.setFailureReason(order.getFailureReason());
+        return dto;
+    }
+
+    private OrderDto convertToDto(Order order) {
+        OrderDto dto = convertToSummaryDto(order);
 
         List<OrderItemDto> orderItemDtos = order.getItems().stream()
                 .map(this::convertToDto)
@@ -151,4 +418,7 @@ public class OrderService {
         dto.setSubtotal(orderItem.getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
         return dto;
     }
-}
\ No newline at end of file
+
+    private record OrderCursor(LocalDateTime orderDate, Long id) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.project.ecommerce.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ecommerce.dto.ProductExportRow;
+import com.project.ecommerce.repository.ProductRepository;
+import com.project.ecommerce.util.CsvLineParser;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Writes the whole catalog row by row from a streaming cursor. Rows are DTO projections, so nothing is
+// attached to the persistence context and memory stays flat however large the catalog is.
+@Service
+public class ProductExportService {
+    private static final List<String> CSV_HEADER = List.of(
+            "id", "sku", "name", "description", "price", "imageUrl", "stockQuantity", "categoryId", "categoryName");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void exportProducts(OutputStream output, boolean csv) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write(CsvLineParser.format(CSV_HEADER));
+            writer.write('\n');
+        }
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ProductExportRow> rows = productRepository.streamForExport()) {
+                    rows.forEach(row -> {
+                        try {
+                            writer.write(csv ? toCsv(row) : objectMapper.writeValueAsString(row));
+                            writer.write('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private String toCsv(ProductExportRow row) {
+        return CsvLineParser.format(Arrays.asList(row.getId(), row.getSku(), row.getName(), row.getDescription(),
+                row.getPrice(), row.getImageUrl(), row.getStockQuantity(), row.getCategoryId(), row.getCategoryName()));
+    }
+}
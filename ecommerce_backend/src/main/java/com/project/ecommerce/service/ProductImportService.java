@@ -0,0 +1,226 @@
+package com.project.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ecommerce.cache.CatalogCache;
+import com.project.ecommerce.dto.ProductImportError;
+import com.project.ecommerce.dto.ProductImportResult;
+import com.project.ecommerce.dto.ProductImportRow;
+import com.project.ecommerce.model.Category;
+import com.project.ecommerce.repository.CategoryRepository;
+import com.project.ecommerce.repository.ProductBulkRepository;
+import com.project.ecommerce.search.AutocompleteIndex;
+import com.project.ecommerce.search.ProductFacetIndex;
+import com.project.ecommerce.search.ProductSearchIndex;
+import com.project.ecommerce.util.CsvLineParser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Streams a CSV (with a header line) or NDJSON feed and upserts products by sku in JDBC batches.
+// Each batch commits on its own, so a bad row only costs that row and the rest of the feed still loads.
+@Service
+public class ProductImportService {
+    private static final int MAX_SKU_LENGTH = 64;
+
+    @Autowired
+    private ProductBulkRepository productBulkRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${catalog.import.max-errors:1000}")
+    private int maxErrors;
+
+    public ProductImportResult importProducts(InputStream input, boolean ndjson) throws IOException {
+        Map<Long, Long> categoryIds = new HashMap<>();
+        Map<String, Long> categoryIdsByName = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categoryIds.put(category.getId(), category.getId());
+            categoryIdsByName.put(category.getName().toLowerCase(Locale.ROOT), category.getId());
+        }
+
+        ProductImportResult result = new ProductImportResult();
+        List<ImportLine> batch = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        List<String> header = null;
+        String line;
+        long[] lastLine = new long[1];
+        while (true) {
+            long lineNumber = lastLine[0] + 1;
+            line = ndjson ? reader.readLine() : CsvLineParser.readRecord(reader, lastLine);
+            if (line == null) {
+                break;
+            }
+            if (ndjson) {
+                lastLine[0]++;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (!ndjson && header == null) {
+                header = CsvLineParser.parse(line).stream()
+                        .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                        .collect(Collectors.toList());
+                continue;
+            }
+
+            result.setRows(result.getRows() + 1);
+            ProductImportRow row = null;
+            try {
+                row = ndjson ? objectMapper.readValue(line, ProductImportRow.class) : parseCsvRow(header, line);
+                resolveCategory(row, categoryIds, categoryIdsByName);
+                validate(row);
+            } catch (JsonProcessingException e) {
+                reject(result, lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            } catch (RuntimeException e) {
+                reject(result, lineNumber, row != null ? row.getSku() : null, e.getMessage());
+                continue;
+            }
+
+            batch.add(new ImportLine(lineNumber, row));
+            if (batch.size() >= batchSize) {
+                flush(batch, result);
+                batch.clear();
+            }
+        }
+        flush(batch, result);
+
+        catalogCache.evictProducts();
+        return result;
+    }
+
+    private void flush(List<ImportLine> batch, ProductImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<ImportLine> upserted = new ArrayList<>();
+        try {
+            productBulkRepository.upsert(batch.stream().map(ImportLine::row).collect(Collectors.toList()));
+            upserted.addAll(batch);
+        } catch (DataAccessException e) {
+            // Retry row by row so the failure is pinned on the offending lines only
+            for (ImportLine importLine : batch) {
+                try {
+                    productBulkRepository.upsert(List.of(importLine.row()));
+                    upserted.add(importLine);
+                } catch (DataAccessException rowFailure) {
+                    reject(result, importLine.lineNumber(), importLine.row().getSku(),
+                            rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        result.setUpserted(result.getUpserted() + upserted.size());
+
+        Map<String, Long> ids = productBulkRepository.findIdsBySku(
+                upserted.stream().map(importLine -> importLine.row().getSku()).collect(Collectors.toList()));
+        for (ImportLine importLine : upserted) {
+            Long id = ids.get(importLine.row().getSku());
+            if (id != null) {
+                productSearchIndex.index(id, importLine.row().getName(), importLine.row().getDescription());
+                autocompleteIndex.indexProduct(id, importLine.row().getName());
+            }
+        }
+        productFacetIndex.markStale(ids.values());
+    }
+
+    private ProductImportRow parseCsvRow(List<String> header, String line) {
+        List<String> fields = CsvLineParser.parse(line);
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < header.size() && i < fields.size(); i++) {
+            String value = fields.get(i).trim();
+            values.put(header.get(i), value.isEmpty() ? null : value);
+        }
+
+        ProductImportRow row = new ProductImportRow();
+        row.setSku(values.get("sku"));
+        row.setName(values.get("name"));
+        row.setDescription(values.get("description"));
+        row.setImageUrl(values.get("imageurl"));
+        row.setCategoryName(values.get("categoryname"));
+        try {
+            row.setPrice(values.get("price") != null ? new BigDecimal(values.get("price")) : null);
+            row.setStockQuantity(values.get("stockquantity") != null ? Integer.valueOf(values.get("stockquantity")) : null);
+            row.setCategoryId(values.get("categoryid") != null ? Long.valueOf(values.get("categoryid")) : null);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid number: " + e.getMessage());
+        }
+        return row;
+    }
+
+    private void resolveCategory(ProductImportRow row, Map<Long, Long> categoryIds, Map<String, Long> categoryIdsByName) {
+        Long categoryId = null;
+        if (row.getCategoryId() != null) {
+            categoryId = categoryIds.get(row.getCategoryId());
+        } else if (row.getCategoryName() != null) {
+            categoryId = categoryIdsByName.get(row.getCategoryName().toLowerCase(Locale.ROOT));
+        }
+        if (categoryId == null) {
+            throw new RuntimeException("Category not found: " +
+                    (row.getCategoryId() != null ? row.getCategoryId() : row.getCategoryName()));
+        }
+        row.setCategoryId(categoryId);
+    }
+
+    private void validate(ProductImportRow row) {
+        if (row.getSku() == null || row.getSku().isBlank()) {
+            throw new RuntimeException("sku is required");
+        }
+        if (row.getSku().length() > MAX_SKU_LENGTH) {
+            throw new RuntimeException("sku is longer than " + MAX_SKU_LENGTH + " characters");
+        }
+        if (row.getName() == null || row.getName().isBlank()) {
+            throw new RuntimeException("name is required");
+        }
+        if (row.getPrice() == null || row.getPrice().signum() < 0) {
+            throw new RuntimeException("price must be zero or more");
+        }
+        if (row.getStockQuantity() == null || row.getStockQuantity() < 0) {
+            throw new RuntimeException("stockQuantity must be zero or more");
+        }
+    }
+
+    private void reject(ProductImportResult result, long lineNumber, String sku, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new ProductImportError(lineNumber, sku, message));
+        }
+    }
+
+    private record ImportLine(long lineNumber, ProductImportRow row) {
+    }
+}
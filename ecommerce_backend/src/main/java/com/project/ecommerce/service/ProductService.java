@@ -1,13 +1,31 @@
 package com.project.ecommerce.service;
 
+import com.project.ecommerce.cache.CatalogCache;
+import com.project.ecommerce.dto.AutocompleteSuggestion;
+import com.project.ecommerce.dto.CursorPage;
 import com.project.ecommerce.dto.ProductDto;
+import com.project.ecommerce.dto.ProductFilterPage;
 import com.project.ecommerce.model.Category;
 import com.project.ecommerce.model.Product;
 import com.project.ecommerce.repository.CategoryRepository;
 import com.project.ecommerce.repository.ProductRepository;
+import com.project.ecommerce.search.AutocompleteIndex;
+import com.project.ecommerce.search.ProductFacetIndex;
+import com.project.ecommerce.search.ProductFacetIndex.FacetResult;
+import com.project.ecommerce.search.ProductSearchIndex;
+import com.project.ecommerce.search.ProductSearchIndex.SearchHit;
+import com.project.ecommerce.util.CursorCodec;
+import com.project.ecommerce.util.TransactionHooks;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,31 +36,128 @@ public class ProductService {
     @Autowired
     private CategoryRepository categoryRepository;
 
-    public List<ProductDto> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Value("${catalog.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${catalog.page.max-size:100}")
+    private int maxPageSize;
+
+    public CursorPage<ProductDto> getAllProducts(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        List<ProductDto> products = productRepository.findDtoPageAfter(
+                CursorCodec.decodeId(cursor), PageRequest.of(0, pageSize + 1));
+        return toPage(products, pageSize);
     }
 
     public ProductDto getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
-        return convertToDto(product);
+        return catalogCache.getProduct(id, () -> productRepository.findDtoById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id)));
+    }
+
+    public CursorPage<ProductDto> getProductsByCategory(Long categoryId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        return catalogCache.getCategoryPage(categoryId, cursor, pageSize, () -> {
+            if (!categoryRepository.existsById(categoryId)) {
+                throw new RuntimeException("Category not found with id: " + categoryId);
+            }
+
+            List<ProductDto> products = productRepository.findDtoPageByCategoryAfter(
+                    categoryId, CursorCodec.decodeId(cursor), PageRequest.of(0, pageSize + 1));
+            return toPage(products, pageSize);
+        });
     }
 
-    public List<ProductDto> getProductsByCategory(Long categoryId) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new RuntimeException("Category not found with id: " + categoryId));
+    public CursorPage<ProductDto> searchProducts(String keyword, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        List<SearchHit> hits = productSearchIndex.search(keyword);
 
-        return productRepository.findByCategory(category).stream()
-                .map(this::convertToDto)
+        int start = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            int position = Collections.binarySearch(hits, decodeSearchCursor(cursor), ProductSearchIndex.RANKING);
+            start = position >= 0 ? position + 1 : -position - 1;
+        }
+        int end = Math.min(hits.size(), start + pageSize);
+        List<SearchHit> pageHits = hits.subList(start, end);
+
+        List<Long> ids = pageHits.stream().map(SearchHit::productId).collect(Collectors.toList());
+        Map<Long, ProductDto> productsById = productRepository.findDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+
+        List<ProductDto> items = pageHits.stream()
+                .map(hit -> productsById.get(hit.productId()))
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+
+        boolean hasMore = end < hits.size();
+        String nextCursor = null;
+        if (hasMore) {
+            SearchHit last = pageHits.get(pageHits.size() - 1);
+            nextCursor = CursorCodec.encode(last.score(), last.productId());
+        }
+        return new CursorPage<>(items, nextCursor, hasMore);
     }
 
-    public List<ProductDto> searchProducts(String keyword) {
-        return productRepository.search(keyword).stream()
-                .map(this::convertToDto)
+    public List<AutocompleteSuggestion> autocomplete(String prefix, Integer limit) {
+        return autocompleteIndex.suggest(prefix, limit);
+    }
+
+    // Facet filters are bitmap intersections in ProductFacetIndex; a keyword narrows and orders by relevance
+    public ProductFilterPage filterProducts(String keyword, List<Long> categoryIds, List<String> priceBands,
+                                            Boolean inStock, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        boolean hasCursor = cursor != null && !cursor.isBlank();
+
+        List<SearchHit> hits = null;
+        List<Long> rankedIds = null;
+        int start = 0;
+        Long afterProductId = null;
+        if (keyword != null && !keyword.isBlank()) {
+            hits = productSearchIndex.search(keyword);
+            rankedIds = hits.stream().map(SearchHit::productId).collect(Collectors.toList());
+            if (hasCursor) {
+                int position = Collections.binarySearch(hits, decodeSearchCursor(cursor), ProductSearchIndex.RANKING);
+                start = position >= 0 ? position + 1 : -position - 1;
+            }
+        } else if (hasCursor) {
+            afterProductId = CursorCodec.decodeId(cursor);
+        }
+
+        FacetResult result = productFacetIndex.filter(rankedIds, start, afterProductId, pageSize,
+                categoryIds, priceBands, inStock);
+
+        Map<Long, ProductDto> productsById = productRepository.findDtosByIdIn(result.productIds()).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+        List<ProductDto> items = result.productIds().stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (result.hasMore()) {
+            if (hits != null) {
+                SearchHit last = hits.get(result.next() - 1);
+                nextCursor = CursorCodec.encode(last.score(), last.productId());
+            } else {
+                nextCursor = CursorCodec.encode(result.productIds().get(result.productIds().size() - 1));
+            }
+        }
+        return new ProductFilterPage(items, nextCursor, result.hasMore(), result.total(), result.categoryCounts(),
+                result.priceBandCounts(), result.inStockCount(), result.outOfStockCount());
     }
 
     public ProductDto createProduct(ProductDto productDto) {
@@ -50,24 +165,110 @@ public class ProductService {
         updateProductFromDto(product, productDto);
 
         Product savedProduct = productRepository.save(product);
-        return convertToDto(savedProduct);
+        productSearchIndex.index(savedProduct.getId(), savedProduct.getName(), savedProduct.getDescription());
+        catalogCache.evictProduct(savedProduct.getId(), savedProduct.getCategory().getId());
+
+        ProductDto dto = convertToDto(savedProduct);
+        productFacetIndex.index(dto);
+        autocompleteIndex.indexProduct(dto.getId(), dto.getName());
+        return dto;
     }
 
+    // Striped products change both the product row and its bucket rows, so these run in one transaction; the
+    // in-memory indexes and the cache only follow once it has committed
+    @Transactional
     public ProductDto updateProduct(Long id, ProductDto productDto) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        Long previousCategoryId = product.getCategory().getId();
+        boolean striped = inventoryService.isStriped(product);
 
         updateProductFromDto(product, productDto);
+        if (striped) {
+            // Striped stock lives in bucket rows; the new total is spread over them below
+            product.setStockQuantity(0);
+        }
 
         Product updatedProduct = productRepository.save(product);
-        return convertToDto(updatedProduct);
+        if (striped) {
+            inventoryService.replaceStripedStock(id, productDto.getStockQuantity(), updatedProduct.getStockBuckets());
+        }
+        ProductDto dto = convertToDto(updatedProduct);
+        dto.setStockQuantity(productDto.getStockQuantity());
+        Long categoryId = updatedProduct.getCategory().getId();
+        TransactionHooks.afterCommit(() -> {
+            productSearchIndex.index(id, dto.getName(), dto.getDescription());
+            catalogCache.evictProduct(id, previousCategoryId, categoryId);
+            productFacetIndex.index(dto);
+            autocompleteIndex.indexProduct(id, dto.getName());
+        });
+        return dto;
     }
 
+    @Transactional
+    public ProductDto stripeStock(Long id, int buckets) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+
+        inventoryService.stripeStock(id, buckets);
+        Long categoryId = product.getCategory().getId();
+        TransactionHooks.afterCommit(() -> catalogCache.evictProduct(id, categoryId));
+        return productRepository.findDtoById(id).orElseThrow();
+    }
+
+    @Transactional
+    public ProductDto unstripeStock(Long id) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+
+        inventoryService.unstripeStock(id);
+        Long categoryId = product.getCategory().getId();
+        TransactionHooks.afterCommit(() -> catalogCache.evictProduct(id, categoryId));
+        return productRepository.findDtoById(id).orElseThrow();
+    }
+
+    @Transactional
     public void deleteProduct(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
 
+        if (inventoryService.isStriped(product)) {
+            inventoryService.unstripeStock(id);
+        }
         productRepository.delete(product);
+        Long categoryId = product.getCategory().getId();
+        TransactionHooks.afterCommit(() -> {
+            productSearchIndex.remove(id);
+            productFacetIndex.remove(id);
+            autocompleteIndex.removeProduct(id);
+            catalogCache.evictProduct(id, categoryId);
+        });
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    private SearchHit decodeSearchCursor(String cursor) {
+        String[] position = CursorCodec.decode(cursor, 2);
+        try {
+            return new SearchHit(Long.parseLong(position[1]), Integer.parseInt(position[0]));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Pages are fetched with one extra row so we know whether another page exists
+    private CursorPage<ProductDto> toPage(List<ProductDto> products, int pageSize) {
+        boolean hasMore = products.size() > pageSize;
+        List<ProductDto> items = products.stream()
+                .limit(pageSize)
+                .collect(Collectors.toList());
+        String nextCursor = hasMore ? CursorCodec.encode(items.get(items.size() - 1).getId()) : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
     }
 
     private void updateProductFromDto(Product product, ProductDto dto) {
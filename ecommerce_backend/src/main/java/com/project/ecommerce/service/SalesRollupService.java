@@ -0,0 +1,102 @@
+package com.project.ecommerce.service;
+
+import com.project.ecommerce.dto.SalesReportRow;
+import com.project.ecommerce.model.Order;
+import com.project.ecommerce.model.OrderItem;
+import com.project.ecommerce.repository.SalesRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Keeps per day/product sales totals up to date as orders are placed and change status.
+// Callers invoke these methods inside their own transaction so rollups commit with the order.
+@Service
+public class SalesRollupService {
+    // Orders in these states have not sold anything (yet) or no longer count as sold
+    private static final Set<Order.OrderStatus> UNCOUNTED_STATUSES =
+            EnumSet.of(Order.OrderStatus.ACCEPTED, Order.OrderStatus.FAILED, Order.OrderStatus.CANCELLED);
+
+    public enum Grouping {
+        DAY, CATEGORY, PRODUCT
+    }
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Value("${reports.rollup.slots:8}")
+    private int slots;
+
+    public void recordSale(Order order) {
+        apply(order, 1);
+    }
+
+    public void recordTransition(Order order, Order.OrderStatus fromStatus, Order.OrderStatus toStatus) {
+        int sign = sign(fromStatus, toStatus);
+        if (sign != 0) {
+            apply(order, sign);
+        }
+    }
+
+    public void recordTransition(Collection<Long> orderIds, Order.OrderStatus fromStatus, Order.OrderStatus toStatus) {
+        int sign = sign(fromStatus, toStatus);
+        if (sign != 0) {
+            salesRollupRepository.addForOrders(orderIds, slots, sign);
+        }
+    }
+
+    public void backfillIfEmpty() {
+        if (salesRollupRepository.isEmpty()) {
+            salesRollupRepository.backfill(slots);
+        }
+    }
+
+    public List<SalesReportRow> getReport(LocalDate from, LocalDate to, Grouping grouping) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("Report start date must not be after its end date");
+        }
+
+        switch (grouping) {
+            case CATEGORY:
+                return salesRollupRepository.sumByCategory(from, to);
+            case PRODUCT:
+                return salesRollupRepository.sumByProduct(from, to);
+            default:
+                return salesRollupRepository.sumByDay(from, to);
+        }
+    }
+
+    private int sign(Order.OrderStatus fromStatus, Order.OrderStatus toStatus) {
+        boolean counted = !UNCOUNTED_STATUSES.contains(fromStatus);
+        boolean counts = !UNCOUNTED_STATUSES.contains(toStatus);
+        return counted == counts ? 0 : (counts ? 1 : -1);
+    }
+
+    private void apply(Order order, int sign) {
+        Map<Long, Long> categoryByProductId = new HashMap<>();
+        Map<Long, Integer> unitsByProductId = new HashMap<>();
+        Map<Long, BigDecimal> revenueByProductId = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            Long productId = item.getProduct().getId();
+            categoryByProductId.put(productId,
+                    item.getProduct().getCategory() != null ? item.getProduct().getCategory().getId() : null);
+            unitsByProductId.merge(productId, item.getQuantity(), Integer::sum);
+            revenueByProductId.merge(productId,
+                    item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())), BigDecimal::add);
+        }
+
+        int slot = order.getId() != null
+                ? (int) (order.getId() % slots)
+                : ThreadLocalRandom.current().nextInt(slots);
+        salesRollupRepository.add(order.getOrderDate().toLocalDate(), slot,
+                categoryByProductId, unitsByProductId, revenueByProductId, sign);
+    }
+}
@@ -15,10 +15,19 @@ public class UserService {
     private UserRepository userRepository;
 
     public User getCurrentUser() {
+        return userRepository.findById(getCurrentUserId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    // For foreign keys only: returns an uninitialised proxy without querying the users table
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
+
+    public Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        return userRepository.findById(userDetails.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return userDetails.getId();
     }
 
     public Optional<User> getUserById(Long id) {
@@ -28,4 +37,4 @@ public class UserService {
     public User updateUser(User user) {
         return userRepository.save(user);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package com.project.ecommerce.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Splits and formats single CSV records; fields may be quoted, with "" standing for a literal quote.
+// A quoted field may contain line breaks, so a record can span several lines; see readRecord().
+public final class CsvLineParser {
+    private CsvLineParser() {
+    }
+
+    // Reads the next record, joining lines while a quoted field is still open. Returns null at end of input;
+    // a quote left open at end of input is passed through for parse() to reject.
+    public static String readRecord(BufferedReader reader, long[] lineNumber) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber[0]++;
+        StringBuilder record = new StringBuilder(line);
+        boolean open = hasOpenQuote(line, false);
+        while (open && (line = reader.readLine()) != null) {
+            lineNumber[0]++;
+            record.append('\n').append(line);
+            open = hasOpenQuote(line, true);
+        }
+        return record.toString();
+    }
+
+    public static List<String> parse(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new RuntimeException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // "" escapes toggle twice, so an odd number of quotes leaves a field open
+    private static boolean hasOpenQuote(String line, boolean open) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                open = !open;
+            }
+        }
+        return open;
+    }
+
+    public static String format(List<?> values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value = values.get(i);
+            String field = value != null ? value.toString() : "";
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                line.append('"').append(field.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(field);
+            }
+        }
+        return line.toString();
+    }
+}
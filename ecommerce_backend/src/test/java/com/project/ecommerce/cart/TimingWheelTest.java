@@ -0,0 +1,81 @@
+package com.project.ecommerce.cart;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// One-millisecond ticks and three levels: level 0 spans 64 ticks, level 1 4096 and level 2 262144
+class TimingWheelTest {
+    private static final long START = 1_000_003L;
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(1, 3, START);
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void expiresWithinTheFirstLevel() {
+        wheel.schedule("soon", START + 10);
+
+        advanceTo(START + 9);
+        assertTrue(expired.isEmpty());
+        advanceTo(START + 10);
+        assertEquals(List.of("soon"), expired);
+    }
+
+    @Test
+    void cascadesFromLevelOneOnTheRightTick() {
+        wheel.schedule("level-1", START + 100);
+
+        advanceTo(START + 99);
+        assertTrue(expired.isEmpty());
+        advanceTo(START + 100);
+        assertEquals(List.of("level-1"), expired);
+    }
+
+    @Test
+    void cascadesFromLevelTwoThroughLevelOne() {
+        wheel.schedule("level-2", START + 5_000);
+
+        advanceTo(START + 4_999);
+        assertTrue(expired.isEmpty());
+        advanceTo(START + 5_000);
+        assertEquals(List.of("level-2"), expired);
+    }
+
+    @Test
+    void wrapsAroundTheTopLevelWithoutExpiringEarly() {
+        long beyondSpan = 64L * 64 * 64 + 1_234;
+        wheel.schedule("wrapped", START + beyondSpan);
+
+        advanceTo(START + beyondSpan - 1);
+        assertTrue(expired.isEmpty());
+        advanceTo(START + beyondSpan);
+        assertEquals(List.of("wrapped"), expired);
+    }
+
+    @Test
+    void expiresPastDeadlinesOnTheNextAdvance() {
+        advanceTo(START + 50);
+        wheel.schedule("late", START + 20);
+
+        advanceTo(START + 50);
+        assertEquals(List.of("late"), expired);
+    }
+
+    @Test
+    void expiresTimeoutsInDeadlineOrderAcrossLevels() {
+        wheel.schedule("c", START + 70_000);
+        wheel.schedule("a", START + 30);
+        wheel.schedule("b", START + 700);
+
+        // Large jumps still walk every tick, so each timeout cascades down before it expires
+        advanceTo(START + 100_000);
+        assertEquals(List.of("a", "b", "c"), expired);
+    }
+
+    private void advanceTo(long nowMillis) {
+        wheel.advance(nowMillis, expired::add);
+    }
+}
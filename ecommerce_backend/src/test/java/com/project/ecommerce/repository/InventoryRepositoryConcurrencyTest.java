@@ -0,0 +1,128 @@
+package com.project.ecommerce.repository;
+
+import com.project.ecommerce.model.Category;
+import com.project.ecommerce.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class InventoryRepositoryConcurrencyTest {
+    private static final int INITIAL_STOCK = 50;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        category = new Category();
+        category.setName("inventory-test-" + UUID.randomUUID());
+        category = categoryRepository.save(category);
+
+        product = new Product();
+        product.setName("Flash sale item");
+        product.setPrice(BigDecimal.TEN);
+        product.setStockQuantity(INITIAL_STOCK);
+        product.setCategory(category);
+        product = productRepository.save(product);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteById(product.getId());
+        categoryRepository.deleteById(category.getId());
+    }
+
+    @Test
+    void concurrentDecrementsOfOneProductNeverOversell() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        List<Long> outOfStock = inventoryRepository.decrementStock(Map.of(product.getId(), 1));
+                        if (outOfStock.isEmpty()) {
+                            sold.incrementAndGet();
+                        } else {
+                            status.setRollbackOnly();
+                        }
+                    });
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(INITIAL_STOCK, sold.get());
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void shortfallOnOneLineRollsBackTheOthers() {
+        Product other = new Product();
+        other.setName("Scarce item");
+        other.setPrice(BigDecimal.ONE);
+        other.setStockQuantity(1);
+        other.setCategory(category);
+        Product scarce = productRepository.save(other);
+
+        try {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            List<Long> outOfStock = transactionTemplate.execute(status -> {
+                List<Long> failed = inventoryRepository.decrementStock(Map.of(product.getId(), 5, scarce.getId(), 2));
+                if (!failed.isEmpty()) {
+                    status.setRollbackOnly();
+                }
+                return failed;
+            });
+
+            assertEquals(List.of(scarce.getId()), outOfStock);
+            assertEquals(INITIAL_STOCK, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+            assertEquals(1, productRepository.findById(scarce.getId()).orElseThrow().getStockQuantity());
+        } finally {
+            productRepository.deleteById(scarce.getId());
+        }
+    }
+}
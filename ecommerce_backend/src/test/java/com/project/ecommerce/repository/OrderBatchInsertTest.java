@@ -0,0 +1,122 @@
+package com.project.ecommerce.repository;
+
+import com.project.ecommerce.model.Category;
+import com.project.ecommerce.model.Order;
+import com.project.ecommerce.model.OrderItem;
+import com.project.ecommerce.model.Product;
+import com.project.ecommerce.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Counts the statements Hibernate prepares to persist a large order. With IDENTITY ids every row is its own
+// INSERT (41 for a 40-line order); with table-allocated ids the items go out as JDBC batches.
+// Needs the MySQL database from application.properties, so it only runs when its credentials are set.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfEnvironmentVariable(named = "DB_USER", matches = ".+")
+class OrderBatchInsertTest {
+    private static final int LINES = 40;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Category category;
+    private List<Product> products;
+    private Long orderId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        user = new User();
+        user.setUsername("batch-" + suffix);
+        user.setEmail("batch-" + suffix + "@example.com");
+        user.setPassword("unused");
+        user.setFullName("Batch Test");
+        user = userRepository.save(user);
+
+        category = new Category();
+        category.setName("batch-test-" + suffix);
+        category = categoryRepository.save(category);
+
+        products = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            Product product = new Product();
+            product.setName("Batch item " + i);
+            product.setPrice(BigDecimal.TEN);
+            product.setStockQuantity(100);
+            product.setCategory(category);
+            products.add(product);
+        }
+        products = productRepository.saveAll(products);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (orderId != null) {
+            orderRepository.deleteById(orderId);
+        }
+        productRepository.deleteAll(products);
+        categoryRepository.delete(category);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void largeOrderIsInsertedInBatches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        orderId = new TransactionTemplate(transactionManager).execute(status -> {
+            Order order = new Order();
+            order.setUser(user);
+            order.setOrderDate(LocalDateTime.now());
+            order.setStatus(Order.OrderStatus.PENDING);
+            order.setTotalAmount(BigDecimal.TEN.multiply(BigDecimal.valueOf(LINES)));
+            for (Product product : products) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(product);
+                item.setQuantity(1);
+                item.setPrice(product.getPrice());
+                order.getItems().add(item);
+            }
+            return orderRepository.save(order).getId();
+        });
+
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(LINES + 1, statistics.getEntityInsertCount());
+        // One INSERT for the order, one batched INSERT for its items and the generator reads and updates
+        assertTrue(statements <= 6, "expected batched inserts but " + statements + " statements were prepared");
+    }
+}
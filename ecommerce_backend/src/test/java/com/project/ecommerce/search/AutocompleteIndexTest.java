@@ -0,0 +1,116 @@
+package com.project.ecommerce.search;
+
+import com.project.ecommerce.dto.AutocompleteSuggestion;
+import com.project.ecommerce.dto.ProductDto;
+import com.project.ecommerce.dto.SalesReportRow;
+import com.project.ecommerce.repository.CategoryRepository;
+import com.project.ecommerce.repository.ProductRepository;
+import com.project.ecommerce.repository.SalesRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AutocompleteIndexTest {
+    private ProductRepository productRepository;
+    private SalesRollupRepository salesRollupRepository;
+    private AutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        salesRollupRepository = mock(SalesRollupRepository.class);
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of());
+        when(productRepository.findDtoPageAfter(any(), any())).thenReturn(List.of());
+        when(salesRollupRepository.sumByProduct(any(), any())).thenReturn(List.of());
+        when(salesRollupRepository.sumByCategory(any(), any())).thenReturn(List.of());
+
+        index = new AutocompleteIndex();
+        ReflectionTestUtils.setField(index, "productRepository", productRepository);
+        ReflectionTestUtils.setField(index, "categoryRepository", categoryRepository);
+        ReflectionTestUtils.setField(index, "salesRollupRepository", salesRollupRepository);
+        ReflectionTestUtils.setField(index, "maxResults", 3);
+        ReflectionTestUtils.setField(index, "popularityDays", 30);
+    }
+
+    @Test
+    void putKeepsTheBestSuggestionsAtEveryPrefix() {
+        index.indexProduct(1L, "Lamp shade");
+        index.indexProduct(2L, "Lamp");
+        index.indexProduct(3L, "Lamp stand large");
+        index.indexProduct(4L, "Lamp post");
+
+        // Equal weights rank shorter names first
+        assertEquals(List.of(2L, 4L, 1L), ids("la"));
+        assertEquals(List.of(1L, 3L), ids("lamp s"));
+
+        // Re-indexing under a new name moves the product to its new keys
+        index.indexProduct(2L, "Desk lamp with a very long name");
+        assertEquals(List.of(4L, 1L, 3L), ids("lamp"));
+        assertEquals(List.of(2L), ids("desk"));
+    }
+
+    @Test
+    void removeLetsTheNextSuggestionIntoTheTopList() {
+        index.indexProduct(1L, "Mug");
+        index.indexProduct(2L, "Mug red");
+        index.indexProduct(3L, "Mug blue");
+        index.indexProduct(4L, "Mug yellow");
+        assertEquals(List.of(1L, 2L, 3L), ids("mu"));
+
+        index.removeProduct(3L);
+        assertEquals(List.of(1L, 2L, 4L), ids("mu"));
+        assertEquals(List.of(), ids("mug b"));
+    }
+
+    @Test
+    void weightsFromSalesRankAheadOfShorterNames() {
+        when(salesRollupRepository.sumByProduct(any(), any()))
+                .thenReturn(List.of(new SalesReportRow(null, null, 2L, 50L, null)));
+        when(productRepository.findDtoPageAfter(any(), any())).thenReturn(List.of(
+                new ProductDto(1L, "Tea", null, null, null, null, null, null),
+                new ProductDto(2L, "Tea pot deluxe", null, null, null, null, null, null)));
+        index.rebuild();
+
+        assertEquals(List.of(2L, 1L), ids("te"));
+        // Every word starts a key
+        assertEquals(List.of(2L), ids("pot"));
+    }
+
+    @Test
+    void prefixesLongerThanTheKeyLengthAreMatchedBySubtreeScan() {
+        index.indexProduct(1L, "Professional espresso machine black");
+        index.indexProduct(2L, "Professional espresso machine white");
+        index.indexProduct(3L, "Cup for professional espresso machine white");
+
+        // The first 24 characters are shared, so only the scan past the key tells these apart
+        assertEquals(List.of(2L, 3L), ids("professional espresso machine w"));
+        assertEquals(List.of(1L), ids("Professional Espresso Machine Bl"));
+        assertEquals(List.of(), ids("professional espresso machine red"));
+    }
+
+    @Test
+    void failedRebuildStopsRecordingWritesAndKeepsTheIndex() {
+        index.indexProduct(1L, "Kettle");
+        when(productRepository.findDtoPageAfter(any(), any())).thenThrow(new RuntimeException("database down"));
+
+        assertThrows(RuntimeException.class, index::rebuild);
+        assertNull(ReflectionTestUtils.getField(index, "writesDuringRebuild"));
+        assertEquals(List.of(1L), ids("ket"));
+    }
+
+    private List<Long> ids(String prefix) {
+        return index.suggest(prefix, null).stream()
+                .map(AutocompleteSuggestion::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,91 @@
+package com.project.ecommerce.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ecommerce.cache.CatalogCache;
+import com.project.ecommerce.dto.ProductExportRow;
+import com.project.ecommerce.dto.ProductImportResult;
+import com.project.ecommerce.dto.ProductImportRow;
+import com.project.ecommerce.model.Category;
+import com.project.ecommerce.repository.CategoryRepository;
+import com.project.ecommerce.repository.ProductBulkRepository;
+import com.project.ecommerce.repository.ProductRepository;
+import com.project.ecommerce.search.AutocompleteIndex;
+import com.project.ecommerce.search.ProductFacetIndex;
+import com.project.ecommerce.search.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Feeds a CSV export straight back into the importer and checks every field survives, including quoted
+// line breaks, commas and quotes
+class ProductCsvRoundTripTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportedCsvImportsUnchanged() throws Exception {
+        ProductExportRow exported = new ProductExportRow(7L, "SKU-7", "Chair, \"oak\"",
+                "Line one\nLine two\n\nLine four", new BigDecimal("49.90"), "http://img/7.png", 12, 3L, "Furniture");
+        ProductExportRow plain = new ProductExportRow(8L, "SKU-8", "Table", null,
+                new BigDecimal("120.00"), null, 4, 3L, "Furniture");
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.streamForExport()).thenReturn(Stream.of(exported, plain));
+        ProductExportService exportService = new ProductExportService();
+        ReflectionTestUtils.setField(exportService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(exportService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(exportService, "transactionManager", mock(PlatformTransactionManager.class));
+        exportService.init();
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exportService.exportProducts(csv, true);
+
+        Category category = new Category();
+        category.setId(3L);
+        category.setName("Furniture");
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+        ProductBulkRepository productBulkRepository = mock(ProductBulkRepository.class);
+
+        ProductImportService importService = new ProductImportService();
+        ReflectionTestUtils.setField(importService, "productBulkRepository", productBulkRepository);
+        ReflectionTestUtils.setField(importService, "categoryRepository", categoryRepository);
+        ReflectionTestUtils.setField(importService, "productSearchIndex", mock(ProductSearchIndex.class));
+        ReflectionTestUtils.setField(importService, "productFacetIndex", mock(ProductFacetIndex.class));
+        ReflectionTestUtils.setField(importService, "autocompleteIndex", mock(AutocompleteIndex.class));
+        ReflectionTestUtils.setField(importService, "catalogCache", mock(CatalogCache.class));
+        ReflectionTestUtils.setField(importService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(importService, "batchSize", 100);
+        ReflectionTestUtils.setField(importService, "maxErrors", 100);
+
+        ProductImportResult result = importService.importProducts(new ByteArrayInputStream(csv.toByteArray()), false);
+
+        assertEquals(2, result.getRows());
+        assertEquals(0, result.getFailed());
+        ArgumentCaptor<List<ProductImportRow>> upserted = ArgumentCaptor.forClass(List.class);
+        verify(productBulkRepository).upsert(upserted.capture());
+        assertEquals(2, upserted.getValue().size());
+        assertMatches(exported, upserted.getValue().get(0));
+        assertMatches(plain, upserted.getValue().get(1));
+    }
+
+    private static void assertMatches(ProductExportRow exported, ProductImportRow imported) {
+        assertEquals(exported.getSku(), imported.getSku());
+        assertEquals(exported.getName(), imported.getName());
+        assertEquals(exported.getDescription(), imported.getDescription());
+        assertEquals(exported.getPrice(), imported.getPrice());
+        assertEquals(exported.getImageUrl(), imported.getImageUrl());
+        assertEquals(exported.getStockQuantity(), imported.getStockQuantity());
+        assertEquals(exported.getCategoryId(), imported.getCategoryId());
+    }
+}
@@ -0,0 +1,167 @@
+package com.project.ecommerce.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.ecommerce.cache.CatalogCache;
+import com.project.ecommerce.dto.ProductImportError;
+import com.project.ecommerce.dto.ProductImportResult;
+import com.project.ecommerce.dto.ProductImportRow;
+import com.project.ecommerce.model.Category;
+import com.project.ecommerce.repository.CategoryRepository;
+import com.project.ecommerce.repository.ProductBulkRepository;
+import com.project.ecommerce.search.AutocompleteIndex;
+import com.project.ecommerce.search.ProductFacetIndex;
+import com.project.ecommerce.search.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductImportServiceTest {
+    private static final String HEADER = "sku,name,price,stockQuantity,categoryName\n";
+
+    private ProductBulkRepository productBulkRepository;
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setId(3L);
+        category.setName("Furniture");
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+        productBulkRepository = mock(ProductBulkRepository.class);
+
+        importService = new ProductImportService();
+        ReflectionTestUtils.setField(importService, "productBulkRepository", productBulkRepository);
+        ReflectionTestUtils.setField(importService, "categoryRepository", categoryRepository);
+        ReflectionTestUtils.setField(importService, "productSearchIndex", mock(ProductSearchIndex.class));
+        ReflectionTestUtils.setField(importService, "productFacetIndex", mock(ProductFacetIndex.class));
+        ReflectionTestUtils.setField(importService, "autocompleteIndex", mock(AutocompleteIndex.class));
+        ReflectionTestUtils.setField(importService, "catalogCache", mock(CatalogCache.class));
+        ReflectionTestUtils.setField(importService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(importService, "batchSize", 100);
+        ReflectionTestUtils.setField(importService, "maxErrors", 100);
+    }
+
+    @Test
+    void rejectsInvalidRowsAndLoadsTheRest() throws Exception {
+        String csv = HEADER +
+                "A1,Chair,10,5,Furniture\n" +
+                ",No sku,10,5,Furniture\n" +
+                "A3,,10,5,Furniture\n" +
+                "A4,Desk,-1,5,Furniture\n" +
+                "A5,Desk,10,-2,Furniture\n" +
+                "A6,Desk,ten,1,Furniture\n" +
+                "A7,Desk,10,1,Garden\n" +
+                "S".repeat(65) + ",Desk,10,1,Furniture\n" +
+                "A9,Stool,0,0,furniture\n";
+
+        ProductImportResult result = importCsv(csv);
+
+        assertEquals(9, result.getRows());
+        assertEquals(2, result.getUpserted());
+        assertEquals(7, result.getFailed());
+        List<ProductImportError> errors = result.getErrors();
+        assertError(errors.get(0), 3, null, "sku is required");
+        assertError(errors.get(1), 4, "A3", "name is required");
+        assertError(errors.get(2), 5, "A4", "price must be zero or more");
+        assertError(errors.get(3), 6, "A5", "stockQuantity must be zero or more");
+        assertEquals(7, errors.get(4).getLine());
+        assertTrue(errors.get(4).getMessage().startsWith("Invalid number"));
+        assertError(errors.get(5), 8, "A7", "Category not found: Garden");
+        assertError(errors.get(6), 9, "S".repeat(65), "sku is longer than 64 characters");
+
+        List<ProductImportRow> upserted = captureUpserts(1).get(0);
+        assertEquals(List.of("A1", "A9"), upserted.stream().map(ProductImportRow::getSku).collect(Collectors.toList()));
+        // Category names match case-insensitively and resolve to the id
+        assertEquals(3L, upserted.get(1).getCategoryId());
+    }
+
+    @Test
+    void reportsMalformedJsonLinesAndSkipsBlankOnes() throws Exception {
+        String ndjson = "{\"sku\":\"J1\",\"name\":\"Lamp\",\"price\":5,\"stockQuantity\":1,\"categoryId\":3}\n" +
+                "\n" +
+                "{\"sku\":\"J2\",\n" +
+                "{\"sku\":\"J3\",\"name\":\"Rug\",\"price\":5,\"stockQuantity\":1,\"categoryId\":9}\n";
+
+        ProductImportResult result = importService.importProducts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), true);
+
+        assertEquals(3, result.getRows());
+        assertEquals(1, result.getUpserted());
+        assertEquals(2, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertNull(result.getErrors().get(0).getSku());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Malformed JSON"));
+        assertError(result.getErrors().get(1), 4, "J3", "Category not found: 9");
+    }
+
+    @Test
+    void retriesAFailedBatchRowByRowAndRejectsOnlyTheOffendingRow() throws Exception {
+        doAnswer(invocation -> {
+            List<ProductImportRow> rows = invocation.getArgument(0);
+            if (rows.size() > 1 || rows.get(0).getSku().equals("DUP")) {
+                throw new DataIntegrityViolationException("Duplicate entry");
+            }
+            return null;
+        }).when(productBulkRepository).upsert(anyList());
+
+        ProductImportResult result = importCsv(HEADER +
+                "B1,Chair,10,5,Furniture\n" +
+                "DUP,Chair,10,5,Furniture\n" +
+                "B3,Chair,10,5,Furniture\n");
+
+        assertEquals(2, result.getUpserted());
+        assertEquals(1, result.getFailed());
+        assertError(result.getErrors().get(0), 3, "DUP", "Duplicate entry");
+        // One batch attempt, then one per row
+        assertEquals(4, captureUpserts(4).size());
+    }
+
+    @Test
+    void stopsCollectingErrorsAtMaxErrorsButKeepsCounting() throws Exception {
+        ReflectionTestUtils.setField(importService, "maxErrors", 2);
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 5; i++) {
+            csv.append("C").append(i).append(",,10,5,Furniture\n");
+        }
+
+        ProductImportResult result = importCsv(csv.toString());
+
+        assertEquals(5, result.getFailed());
+        assertEquals(2, result.getErrors().size());
+    }
+
+    private ProductImportResult importCsv(String csv) throws Exception {
+        return importService.importProducts(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<ProductImportRow>> captureUpserts(int calls) {
+        ArgumentCaptor<List<ProductImportRow>> captor = ArgumentCaptor.forClass(List.class);
+        verify(productBulkRepository, times(calls)).upsert(captor.capture());
+        return new ArrayList<>(captor.getAllValues());
+    }
+
+    private static void assertError(ProductImportError error, long line, String sku, String message) {
+        assertEquals(line, error.getLine());
+        assertEquals(sku, error.getSku());
+        assertEquals(message, error.getMessage());
+    }
+}
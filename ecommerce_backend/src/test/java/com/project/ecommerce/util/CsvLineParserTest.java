@@ -0,0 +1,63 @@
+package com.project.ecommerce.util;
+
+import org.junit.jupiter.api.Test;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvLineParserTest {
+
+    @Test
+    void splitsPlainAndEmptyFields() {
+        assertEquals(List.of("a", "b", "c"), CsvLineParser.parse("a,b,c"));
+        assertEquals(List.of("", "", ""), CsvLineParser.parse(",,"));
+        assertEquals(List.of(""), CsvLineParser.parse(""));
+    }
+
+    @Test
+    void keepsSeparatorsInsideQuotedFields() {
+        assertEquals(List.of("a,b", "c"), CsvLineParser.parse("\"a,b\",c"));
+        assertEquals(List.of("", "x"), CsvLineParser.parse("\"\",x"));
+    }
+
+    @Test
+    void readsDoubledQuotesAsOneQuote() {
+        assertEquals(List.of("say \"hi\"", "x"), CsvLineParser.parse("\"say \"\"hi\"\"\",x"));
+        assertEquals(List.of("\""), CsvLineParser.parse("\"\"\"\""));
+    }
+
+    @Test
+    void rejectsUnterminatedQuotedField() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> CsvLineParser.parse("a,\"open"));
+        assertEquals("Unterminated quoted field", e.getMessage());
+        assertThrows(RuntimeException.class, () -> CsvLineParser.parse("\"a\"\""));
+    }
+
+    @Test
+    void formatQuotesOnlyWhenNeededAndParsesBack() {
+        List<Object> values = Arrays.asList("a", "b,c", "d\"e", null, 5, "line\nbreak");
+        String line = CsvLineParser.format(values);
+
+        assertEquals("a,\"b,c\",\"d\"\"e\",,5,\"line\nbreak\"", line);
+        assertEquals(List.of("a", "b,c", "d\"e", "", "5", "line\nbreak"), CsvLineParser.parse(line));
+    }
+
+    @Test
+    void readRecordJoinsLinesWhileAQuoteIsOpen() throws Exception {
+        BufferedReader reader = new BufferedReader(new StringReader("a,\"one\n\ntwo\",b\nc,d\n\"left open\n"));
+        long[] lineNumber = new long[1];
+
+        assertEquals("a,\"one\n\ntwo\",b", CsvLineParser.readRecord(reader, lineNumber));
+        assertEquals(3, lineNumber[0]);
+        assertEquals("c,d", CsvLineParser.readRecord(reader, lineNumber));
+        assertEquals(4, lineNumber[0]);
+        // An unterminated field at the end is passed through for parse to reject
+        assertEquals("\"left open", CsvLineParser.readRecord(reader, lineNumber));
+        assertNull(CsvLineParser.readRecord(reader, lineNumber));
+    }
+}